@@ -0,0 +1,101 @@
+package regio_vinco;
+
+import java.util.List;
+import java.util.function.LongFunction;
+import javafx.scene.Node;
+import javafx.scene.control.Labeled;
+
+/**
+ * This class ties a label on the heads up display to a number, like the
+ * number of incorrect guesses or the seconds the game has taken. The game
+ * may hand it the number as often as it likes, every frame even, but the
+ * label's text is only formatted and set when the number actually changes,
+ * so the label isn't laid out again for nothing.
+ *
+ * Styles that come and go, like the highlight on the bottom of the sub
+ * region stack, are style classes from the game's style sheet, which are
+ * added and removed with setStyleClass rather than by setting inline style
+ * strings that have to be parsed again every time.
+ *
+ * @author McKillaGorilla
+ */
+public class HUDBinding {
+    // THE LABEL THAT SHOWS THE NUMBER
+    private Labeled label;
+
+    // TURNS THE NUMBER INTO THE LABEL'S TEXT
+    private LongFunction<String> formatter;
+
+    // THE NUMBER THE LABEL SHOWS NOW, IF IT SHOWS ONE YET
+    private long value;
+    private boolean shown;
+
+    /**
+     * Constructor for a binding that shows numbers in initLabel just as
+     * they are.
+     */
+    public HUDBinding(Labeled initLabel) {
+        this(initLabel, Long::toString);
+    }
+
+    /**
+     * Constructor for a binding that shows numbers in initLabel as they're
+     * formatted by initFormatter.
+     */
+    public HUDBinding(Labeled initLabel, LongFunction<String> initFormatter) {
+        label = initLabel;
+        formatter = initFormatter;
+        shown = false;
+    }
+
+    /**
+     * Shows a number in the label, unless it's already showing it.
+     *
+     * @param newValue The number to show.
+     *
+     * @return true if the label was changed.
+     */
+    public boolean set(long newValue) {
+        if (shown && (newValue == value)) {
+            return false;
+        }
+        value = newValue;
+        shown = true;
+        label.setText(formatter.apply(newValue));
+        return true;
+    }
+
+    /**
+     * Makes sure the next number given is shown even if it's the same as
+     * the last one, for when something else has changed the label.
+     */
+    public void invalidate() {
+        shown = false;
+    }
+
+    public Labeled getLabel() {
+        return label;
+    }
+
+    /**
+     * Adds a style class to a node or takes it away, doing nothing if the
+     * node already has it or already doesn't.
+     *
+     * @param node The node to style.
+     *
+     * @param styleClass The style class, which should be in the game's
+     * style sheet.
+     *
+     * @param on true to add the style class, false to take it away.
+     */
+    public static void setStyleClass(Node node, String styleClass, boolean on) {
+        List<String> styleClasses = node.getStyleClass();
+        if (on) {
+            if (!styleClasses.contains(styleClass)) {
+                styleClasses.add(styleClass);
+            }
+        } else {
+            styleClasses.remove(styleClass);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package regio_vinco;
+
+import static regio_vinco.RegioVinco.*;
+
+/**
+ * This class manages what's shown while the mouse hovers over the map in
+ * navigation mode, namely the hovered region's name, flag, and high scores.
+ * Mouse move events arrive far more often than the hovered region changes,
+ * so it only updates the display when the region under the cursor is a
+ * different one, getting flags from the game's image cache and scores
+ * from its score store when it does, and letting the map prefetcher know
+ * which sub region's map is likely to be wanted next. It also keeps track
+ * of how long it takes to handle each event.
+ *
+ * @author McKillaGorilla
+ */
+public class HoverState {
+    // THE REGION DIRECTORY AND SUB REGION CURRENTLY BEING SHOWN
+    private String hoveredPath;
+    private String hoveredSubRegion;
+
+    // LATENCY METRICS, IN NANOSECONDS
+    private long lastLatency;
+    private long maxLatency;
+    private long totalLatency;
+    private int numEvents;
+    private int numRegionChanges;
+
+    /**
+     * Default constructor, nothing is hovered to begin with.
+     */
+    public HoverState() {
+        reset();
+    }
+
+    /**
+     * Forgets the currently hovered region, which should be done whenever
+     * a new map is loaded so the next event refreshes the display.
+     */
+    public void reset() {
+        hoveredPath = null;
+        hoveredSubRegion = null;
+    }
+
+    /**
+     * Called for every mouse move over the map with the sub region under
+     * the cursor, it updates the display only if that region changed.
+     *
+     * @param game The game whose hover display is to be updated.
+     *
+     * @param subRegion The sub region now under the cursor, which may be
+     * null if there isn't one.
+     */
+    public void update(RegioVincoGame game, String subRegion) {
+        long startTime = System.nanoTime();
+        if (!same(subRegion, hoveredSubRegion) || !same(game.path, hoveredPath)) {
+            hoveredSubRegion = subRegion;
+            hoveredPath = game.path;
+            if (subRegion == null) {
+                hide(game);
+                game.mapPrefetcher.hover(null, null, null);
+            } else {
+                show(game, subRegion);
+                game.mapPrefetcher.hover(subRegion, game.getMapPath(subRegion), game.getWorldDataManager());
+            }
+            numRegionChanges++;
+        }
+        recordLatency(System.nanoTime() - startTime);
+    }
+
+    // HELPER METHOD FOR HIDING THE HOVER DISPLAY
+    private void hide(RegioVincoGame game) {
+        game.regionLabel.setVisible(false);
+        game.highScore.setVisible(false);
+        game.bestTime.setVisible(false);
+        game.leastGuesses.setVisible(false);
+        game.flag.setVisible(false);
+    }
+
+    // HELPER METHOD FOR SHOWING THE HOVER DISPLAY FOR A SUB REGION
+    private void show(RegioVincoGame game, String subRegion) {
+        String subRegionDir = game.path + subRegion + "/";
+        game.flag.setImage(game.loadImage(subRegionDir + subRegion + FLAG_FILE_PATH));
+        game.flag.setVisible(true);
+        game.flag.setLayoutX(940);
+        game.flag.setLayoutY(205);
+
+        game.regionLabel.setText(subRegion);
+        game.regionLabel.setVisible(true);
+
+        // REGIONS THAT HAVE NEVER BEEN PLAYED HAVE NO SCORES
+        ScoreStore.ScoreSummary summary = game.scores.getSummary(game.path, subRegion);
+        if (summary == null) {
+            summary = ScoreStore.EMPTY_SUMMARY;
+        }
+        game.highScore.setText("High Score: " + summary.getHighScore());
+        game.bestTime.setText("Best Time: " + summary.getBestTime());
+        game.leastGuesses.setText("Least Incorrect Guesses: " + summary.getLeastGuesses());
+        game.highScore.setVisible(true);
+        game.bestTime.setVisible(true);
+        game.leastGuesses.setVisible(true);
+    }
+
+    // HELPER METHOD FOR COMPARING STRINGS THAT MAY BE null
+    private static boolean same(String a, String b) {
+        return (a == null) ? (b == null) : a.equals(b);
+    }
+
+    // HELPER METHOD FOR UPDATING THE METRICS
+    private void recordLatency(long latency) {
+        lastLatency = latency;
+        totalLatency += latency;
+        if (latency > maxLatency) {
+            maxLatency = latency;
+        }
+        numEvents++;
+    }
+
+    // ACCESSOR METHODS FOR THE METRICS
+
+    public long getLastLatencyNanos() {
+        return lastLatency;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatency;
+    }
+
+    public long getAverageLatencyNanos() {
+        if (numEvents == 0) {
+            return 0;
+        }
+        return totalLatency / numEvents;
+    }
+
+    public int getNumEvents() {
+        return numEvents;
+    }
+
+    public int getNumRegionChanges() {
+        return numRegionChanges;
+    }
+}
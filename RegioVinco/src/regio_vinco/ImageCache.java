@@ -0,0 +1,236 @@
+package regio_vinco;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import javafx.scene.image.Image;
+
+/**
+ * This class keeps the images we've already decoded so that going back
+ * and forth between maps doesn't decode the same maps, flags, and GUI
+ * images over and over again. Images are keyed by their canonical path,
+ * so two different paths to the same file share one image, and the least
+ * recently used ones are evicted whenever the decoded pixels of all the
+ * cached images would take up more than the memory ceiling.
+ *
+ * Images are decoded without holding the cache's lock, so looking up an
+ * image that's already cached never waits for a big map being decoded on
+ * another thread. If two threads want the same image at once only one of
+ * them decodes it and the other waits for that.
+ *
+ * @author McKillaGorilla
+ */
+public class ImageCache {
+    // EVERY DECODED PIXEL TAKES UP THIS MANY BYTES
+    public static final int BYTES_PER_PIXEL = 4;
+
+    // THE MOST BYTES OF DECODED PIXELS WE'LL KEEP
+    private long maxBytes;
+
+    // HOW MANY BYTES OF DECODED PIXELS WE'RE KEEPING NOW
+    private long currentBytes;
+
+    // THE CACHED IMAGES BY CANONICAL PATH, ORDERED FROM LEAST TO
+    // MOST RECENTLY USED
+    private LinkedHashMap<String, Image> images;
+
+    // THE CANONICAL PATH OF EACH PATH WE'VE BEEN ASKED FOR, SO WE ONLY
+    // HAVE TO GO TO THE FILE SYSTEM FOR IT ONCE
+    private HashMap<String, String> canonicalPaths;
+
+    // CANONICAL PATHS OF IMAGES WE LOOKED FOR THAT DON'T EXIST
+    private HashSet<String> missing;
+
+    // THE IMAGES BEING DECODED RIGHT NOW, BY CANONICAL PATH
+    private HashMap<String, FutureTask<Image>> decoding;
+
+    // FOR REPORTING HOW WELL THE CACHE IS WORKING
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructor for a cache that keeps at most initMaxBytes bytes of
+     * decoded pixels.
+     */
+    public ImageCache(long initMaxBytes) {
+        maxBytes = initMaxBytes;
+        currentBytes = 0;
+        images = new LinkedHashMap<>(16, 0.75f, true);
+        canonicalPaths = new HashMap<>();
+        missing = new HashSet<>();
+        decoding = new HashMap<>();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Accessor method for an image, decoding it only if it isn't already
+     * in the cache.
+     *
+     * @param imagePath Path of the image file.
+     *
+     * @return The decoded image, or null if there is no such file.
+     */
+    public Image getImage(String imagePath) {
+        String key = getCanonicalPath(imagePath);
+        FutureTask<Image> task;
+        boolean decodeHere = false;
+        synchronized (this) {
+            Image img = images.get(key);
+            if (img != null) {
+                hits++;
+                return img;
+            }
+            if (missing.contains(key)) {
+                hits++;
+                return null;
+            }
+            task = decoding.get(key);
+            if (task == null) {
+                misses++;
+                task = new FutureTask<>(() -> decode(key));
+                decoding.put(key, task);
+                decodeHere = true;
+            }
+        }
+
+        // THE LOCK ISN'T HELD WHILE DECODING, OR WHILE WAITING FOR
+        // ANOTHER THREAD THAT'S DECODING THE SAME IMAGE
+        if (decodeHere) {
+            task.run();
+        }
+        try {
+            Image img = task.get();
+            if (decodeHere) {
+                synchronized (this) {
+                    decoding.remove(key);
+                    keep(key, img);
+                }
+            }
+            return img;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            // IT COULDN'T BE DECODED THIS TIME, BUT IT MAY BE NEXT TIME
+            if (decodeHere) {
+                synchronized (this) {
+                    decoding.remove(key);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Changes the memory ceiling, evicting images right away if the cache
+     * is now over it.
+     */
+    public synchronized void setMaxBytes(long initMaxBytes) {
+        maxBytes = initMaxBytes;
+        evict();
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized int size() {
+        return images.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Empties the cache, note that the hit and miss counters are kept.
+     */
+    public synchronized void clear() {
+        images.clear();
+        canonicalPaths.clear();
+        missing.clear();
+        currentBytes = 0;
+    }
+
+    /**
+     * Calculates how many bytes the decoded pixels of an image take up.
+     */
+    public static long sizeOf(Image img) {
+        return (long) img.getWidth() * (long) img.getHeight() * BYTES_PER_PIXEL;
+    }
+
+    // HELPER METHOD FOR DECODING AN IMAGE, IT RETURNS null IF THERE IS
+    // NO SUCH FILE
+    private static Image decode(String key) {
+        File file = new File(key);
+        if (!file.exists()) {
+            return null;
+        }
+        return new Image(file.toURI().toString());
+    }
+
+    // HELPER METHOD FOR CACHING A NEWLY DECODED IMAGE, OR REMEMBERING
+    // THAT THERE IS NO SUCH IMAGE IF img IS null
+    private void keep(String key, Image img) {
+        if (img == null) {
+            missing.add(key);
+            return;
+        }
+
+        // IMAGES BIGGER THAN THE WHOLE CACHE ARE NEVER KEPT
+        long size = sizeOf(img);
+        if (size <= maxBytes) {
+            images.put(key, img);
+            currentBytes += size;
+            evict();
+        }
+    }
+
+    // HELPER METHOD FOR REMOVING THE LEAST RECENTLY USED IMAGES
+    // UNTIL WE'RE BACK UNDER THE CEILING
+    private void evict() {
+        Iterator<Map.Entry<String, Image>> it = images.entrySet().iterator();
+        while ((currentBytes > maxBytes) && it.hasNext()) {
+            currentBytes -= sizeOf(it.next().getValue());
+            it.remove();
+        }
+    }
+
+    // HELPER METHOD FOR GETTING THE CANONICAL PATH OF A FILE, NOTE THAT
+    // IF IT CAN'T BE FOUND WE USE THE ABSOLUTE PATH. THE FILE SYSTEM IS
+    // ONLY ASKED THE FIRST TIME, AND NOT WHILE HOLDING THE LOCK
+    private String getCanonicalPath(String imagePath) {
+        synchronized (this) {
+            String canonicalPath = canonicalPaths.get(imagePath);
+            if (canonicalPath != null) {
+                return canonicalPath;
+            }
+        }
+        File file = new File(imagePath);
+        String canonicalPath;
+        try {
+            canonicalPath = file.getCanonicalPath();
+        } catch (IOException ex) {
+            canonicalPath = file.getAbsolutePath();
+        }
+        synchronized (this) {
+            canonicalPaths.put(imagePath, canonicalPath);
+        }
+        return canonicalPath;
+    }
+}
@@ -0,0 +1,92 @@
+package regio_vinco;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import regio_vinco.ScoreStore.ScoreSummary;
+
+/**
+ * This class keeps the best few scores of one region in one mode. They're
+ * kept in a heap with the worst of them on top, so a new score only has
+ * to be compared with that one to know whether it makes the board, and
+ * the board never holds more than its capacity no matter how many games
+ * are played.
+ *
+ * @author McKillaGorilla
+ */
+public class Leaderboard {
+    // ORDERS SCORES WORST FIRST
+    private static final Comparator<ScoreSummary> WORST_FIRST =
+            (a, b) -> Integer.compare(a.getHighScore(), b.getHighScore());
+
+    // HOW MANY SCORES THE BOARD KEEPS
+    private int capacity;
+
+    // THE SCORES, WORST FIRST
+    private PriorityQueue<ScoreSummary> scores;
+
+    // THE SCORES BEST FIRST, MADE AGAIN WHENEVER THE BOARD CHANGES SO
+    // THAT READING IT NEVER WRITES ANYTHING, WHICH LETS THE SCORE WRITER
+    // READ IT WHILE THE JAVAFX THREAD DOES TOO
+    private List<ScoreSummary> topScores;
+
+    /**
+     * Constructor for an empty board that keeps initCapacity scores.
+     */
+    public Leaderboard(int initCapacity) {
+        capacity = Math.max(1, initCapacity);
+        scores = new PriorityQueue<>(capacity, WORST_FIRST);
+        topScores = Collections.emptyList();
+    }
+
+    /**
+     * Adds a score to the board if it's good enough, pushing the worst one
+     * off if the board is full. Note that a score that only ties with one
+     * on a full board doesn't make it, the one that got there first stays.
+     *
+     * @return true if the score made the board.
+     */
+    public boolean offer(ScoreSummary summary) {
+        if (scores.size() == capacity) {
+            if (summary.getHighScore() <= scores.peek().getHighScore()) {
+                return false;
+            }
+            scores.poll();
+        }
+        scores.add(summary);
+        ScoreSummary[] sorted = scores.toArray(new ScoreSummary[scores.size()]);
+        Arrays.sort(sorted, WORST_FIRST.reversed());
+        topScores = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(sorted)));
+        return true;
+    }
+
+    /**
+     * Accessor method for the best score on the board.
+     *
+     * @return The best score, or null if the board is empty.
+     */
+    public ScoreSummary getBest() {
+        List<ScoreSummary> top = getTopScores();
+        return top.isEmpty() ? null : top.get(0);
+    }
+
+    /**
+     * Accessor method for all the scores on the board.
+     *
+     * @return The scores, best first, which may not be changed.
+     */
+    public List<ScoreSummary> getTopScores() {
+        return topScores;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return scores.size();
+    }
+}
@@ -0,0 +1,84 @@
+package regio_vinco;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javafx.scene.image.Image;
+import world_data.Region;
+
+/**
+ * This class holds everything MapLoader produces for one map, so that it
+ * can be built on a worker thread and then handed to the JavaFX thread all
+ * at once. None of it changes once it's made, note that the map image is
+ * the decoded original, the game draws on its own copy.
+ *
+ * @author McKillaGorilla
+ */
+public class LoadedMap {
+    // THE REGION WHOSE MAP THIS IS AND THE DIRECTORY IT'S IN
+    private final String regionMap;
+    private final String path;
+
+    // THE DECODED MAP AND THE INDEX OF ITS SUB REGIONS' PIXELS
+    private final Image mapImage;
+    private final RegionIndex regionIndex;
+
+    // THE REGION FROM THE WORLD'S TREE AND ITS SUB REGIONS BY NAME, IN
+    // ORDER. NOTE THAT THESE ARE KEPT EVEN IF THE WORLD LETS GO OF THEM
+    private final Region region;
+    private final Map<String, Region> subRegions;
+
+    // THE SUB REGIONS THAT HAVE THEIR OWN DATA
+    private final Set<String> playableSubRegions;
+
+    public LoadedMap(String initRegionMap, String initPath, Image initMapImage,
+            RegionIndex initRegionIndex, Region initRegion, List<Region> initSubRegions,
+            Set<String> initPlayableSubRegions) {
+        regionMap = initRegionMap;
+        path = initPath;
+        mapImage = initMapImage;
+        regionIndex = initRegionIndex;
+        region = initRegion;
+        LinkedHashMap<String, Region> subRegionsByName = new LinkedHashMap<>();
+        for (Region subRegion : initSubRegions) {
+            subRegionsByName.put(subRegion.getName(), subRegion);
+        }
+        subRegions = Collections.unmodifiableMap(subRegionsByName);
+        playableSubRegions = Collections.unmodifiableSet(initPlayableSubRegions);
+    }
+
+    public String getRegionMap() {
+        return regionMap;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Image getMapImage() {
+        return mapImage;
+    }
+
+    public RegionIndex getRegionIndex() {
+        return regionIndex;
+    }
+
+    public Region getRegion() {
+        return region;
+    }
+
+    public Collection<Region> getSubRegions() {
+        return subRegions.values();
+    }
+
+    public Region getSubRegion(String name) {
+        return subRegions.get(name);
+    }
+
+    public Set<String> getPlayableSubRegions() {
+        return playableSubRegions;
+    }
+}
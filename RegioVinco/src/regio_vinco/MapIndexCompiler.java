@@ -0,0 +1,116 @@
+package regio_vinco;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import world_data.Region;
+import world_data.WorldDataManager;
+import world_io.WorldStreamIO;
+import static regio_vinco.RegioVinco.*;
+
+/**
+ * This is a build-time tool that precompiles a RegionIndex for every map
+ * found under a data directory. For each "<Region> Map.png" that has a
+ * matching "<Region> Data.xml" it writes a "<Region> Map.index" file
+ * right next to it, which MapLoader will then memory-map instead of
+ * scanning the map image. Note that it decodes the images with ImageIO
+ * so that it may run during a headless build.
+ *
+ * @author McKillaGorilla
+ */
+public class MapIndexCompiler {
+    // THIS LOADS THE REGION COLORS FOR EACH MAP
+    private WorldDataManager worldDataManager;
+
+    // HOW MANY INDEX FILES WE'VE WRITTEN
+    private int numCompiled;
+
+    /**
+     * Constructor for setting up the compiler to read region data files
+     * validated against the schemaFile.
+     */
+    public MapIndexCompiler(File schemaFile) {
+        worldDataManager = new WorldDataManager();
+        worldDataManager.setWorldImporterExporter(new WorldStreamIO(schemaFile));
+        numCompiled = 0;
+    }
+
+    public int getNumCompiled() {
+        return numCompiled;
+    }
+
+    /**
+     * Compiles the index for the map in regionDir, if there is one, and
+     * then does the same for all of its sub-region directories.
+     *
+     * @param regionDir A directory named after its region.
+     */
+    public void compileAll(File regionDir) throws IOException {
+        String regionName = regionDir.getName();
+        File mapFile = new File(regionDir, regionName + MAPS_FILE_PATH);
+        File dataFile = new File(regionDir, regionName + XML_FILE_PATH);
+        if (mapFile.exists() && dataFile.exists()) {
+            compile(mapFile, dataFile, new File(regionDir, regionName + MAP_INDEX_FILE_PATH));
+        }
+
+        File[] children = regionDir.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    compileAll(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds and saves the index for a single map.
+     *
+     * @param mapFile The map image to index.
+     *
+     * @param dataFile The region data file listing the map's sub-regions.
+     *
+     * @param indexFile The index file to write.
+     */
+    public void compile(File mapFile, File dataFile, File indexFile) throws IOException {
+        // GET THE SUB-REGIONS AND THEIR COLORS
+        worldDataManager.load(dataFile);
+        int numRegions = worldDataManager.getAllRegions().size();
+        String[] regionNames = new String[numRegions];
+        int[] regionColors = new int[numRegions];
+        int ordinal = 0;
+        for (Region region : worldDataManager.getAllRegions().values()) {
+            regionNames[ordinal] = region.getName();
+            regionColors[ordinal] = region.getRGB();
+            ordinal++;
+        }
+
+        // THEN INDEX THE IMAGE ONE ROW AT A TIME
+        BufferedImage image = ImageIO.read(mapFile);
+        int width = image.getWidth();
+        int height = image.getHeight();
+        RegionIndex index = new RegionIndex(width, height, regionNames, regionColors);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            index.indexRow(y, row);
+        }
+        index.finish();
+
+        MapIndexFile.save(index, MapIndexFile.checksum(mapFile), indexFile);
+        numCompiled++;
+        System.out.println("Compiled " + indexFile.getPath());
+    }
+
+    /**
+     * Run from the RegioVinco project directory, the optional argument is
+     * the data directory to compile, which defaults to The World.
+     */
+    public static void main(String[] args) throws IOException {
+        File worldDir = new File((args.length > 0) ? args[0] : CONTINENT_DATA_PATH);
+        MapIndexCompiler compiler = new MapIndexCompiler(new File(XML_PATH + "RegionData.xsd"));
+        compiler.compileAll(worldDir);
+        System.out.println(compiler.getNumCompiled() + " map indexes compiled");
+    }
+}
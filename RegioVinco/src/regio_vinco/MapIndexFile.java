@@ -0,0 +1,162 @@
+package regio_vinco;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * This class reads and writes precompiled RegionIndex files. These are
+ * built offline by the MapIndexCompiler and stored right next to each
+ * "<Region> Map.png", so loading a map only needs to memory-map the file
+ * rather than scan every pixel of the image. Each file records a checksum
+ * of the map image it was built from so stale files are never used.
+ *
+ * @author McKillaGorilla
+ */
+public class MapIndexFile {
+    // EVERY INDEX FILE STARTS WITH THESE
+    public static final int MAGIC_NUMBER = 0x52564D49;
+    public static final int VERSION = 1;
+
+    /**
+     * Computes the checksum of a map image file, which is what ties an
+     * index file to the image it was built from.
+     *
+     * @param mapFile The map image file.
+     *
+     * @return The CRC32 checksum of the file's bytes.
+     */
+    public static long checksum(File mapFile) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(mapFile.toPath()));
+        return crc.getValue();
+    }
+
+    /**
+     * Writes the index to a file, recording the checksum of the map image
+     * the index was built from.
+     *
+     * @param index The index to save.
+     *
+     * @param mapChecksum Checksum of the map image that was indexed.
+     *
+     * @param indexFile The file to write.
+     */
+    public static void save(RegionIndex index, long mapChecksum, File indexFile) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            // FIRST THE HEADER
+            out.writeInt(MAGIC_NUMBER);
+            out.writeInt(VERSION);
+            out.writeLong(mapChecksum);
+            out.writeInt(index.getWidth());
+            out.writeInt(index.getHeight());
+            out.writeInt(index.getNumRegions());
+
+            // THEN THE NAME, COLOR, BOUNDING BOX, AND SPAN COUNT OF EACH REGION
+            for (int i = 0; i < index.getNumRegions(); i++) {
+                byte[] nameBytes = index.getRegionName(i).getBytes(StandardCharsets.UTF_8);
+                out.writeShort(nameBytes.length);
+                out.write(nameBytes);
+                out.writeInt(index.getRegionColor(i));
+                out.writeInt(index.getMinX(i));
+                out.writeInt(index.getMinY(i));
+                out.writeInt(index.getMaxX(i));
+                out.writeInt(index.getMaxY(i));
+                out.writeInt(index.getSpans(i).length);
+            }
+            out.writeInt(index.getBorderSpans().length);
+
+            // THEN THE LABEL RASTER
+            for (short label : index.getLabels()) {
+                out.writeShort(label);
+            }
+
+            // AND FINALLY ALL THE SPANS
+            for (int i = 0; i < index.getNumRegions(); i++) {
+                for (int value : index.getSpans(i)) {
+                    out.writeInt(value);
+                }
+            }
+            for (int value : index.getBorderSpans()) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    /**
+     * Loads an index file by memory-mapping it. Note that null is returned
+     * rather than throwing an exception if the file is missing, is not an
+     * index file, or was built from a different map image, since in all
+     * those cases the caller should simply index the map itself.
+     *
+     * @param indexFile The file to load.
+     *
+     * @param expectedChecksum Checksum of the map image currently on disk.
+     *
+     * @return The loaded index, or null if it can't be used.
+     */
+    public static RegionIndex load(File indexFile, long expectedChecksum) {
+        if (!indexFile.exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            // CHECK THE HEADER FIRST
+            if ((buffer.getInt() != MAGIC_NUMBER)
+                    || (buffer.getInt() != VERSION)
+                    || (buffer.getLong() != expectedChecksum)) {
+                return null;
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            int numRegions = buffer.getInt();
+
+            // THEN THE REGIONS
+            String[] names = new String[numRegions];
+            int[] colors = new int[numRegions];
+            int[][] bounds = new int[numRegions][4];
+            int[][] spans = new int[numRegions][];
+            for (int i = 0; i < numRegions; i++) {
+                byte[] nameBytes = new byte[buffer.getShort()];
+                buffer.get(nameBytes);
+                names[i] = new String(nameBytes, StandardCharsets.UTF_8);
+                colors[i] = buffer.getInt();
+                for (int j = 0; j < 4; j++) {
+                    bounds[i][j] = buffer.getInt();
+                }
+                spans[i] = new int[buffer.getInt()];
+            }
+            int[] borderSpans = new int[buffer.getInt()];
+
+            // THE LABELS AND SPANS ARE COPIED IN BULK
+            short[] labels = new short[width * height];
+            buffer.asShortBuffer().get(labels);
+            skip(buffer, labels.length * 2);
+            for (int i = 0; i < numRegions; i++) {
+                buffer.asIntBuffer().get(spans[i]);
+                skip(buffer, spans[i].length * 4);
+            }
+            buffer.asIntBuffer().get(borderSpans);
+
+            return new RegionIndex(width, height, names, colors, labels, spans, bounds, borderSpans);
+        } catch (IOException | RuntimeException ex) {
+            // A TRUNCATED OR CORRUPT FILE, WE'LL JUST IGNORE IT
+            return null;
+        }
+    }
+
+    // HELPER METHOD FOR MOVING PAST DATA READ THROUGH A VIEW BUFFER
+    private static void skip(ByteBuffer buffer, int numBytes) {
+        buffer.position(buffer.position() + numBytes);
+    }
+}
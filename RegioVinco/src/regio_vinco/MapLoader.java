@@ -0,0 +1,236 @@
+package regio_vinco;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import world_data.Region;
+import world_data.WorldDataManager;
+import static regio_vinco.RegioVinco.*;
+
+/**
+ * This class loads maps in the background. Decoding the map image, getting
+ * the region's data from the world, and indexing the map's pixels all
+ * happen on a single worker thread, after which the finished LoadedMap is
+ * handed back on the JavaFX thread, through the game's command queue if
+ * it was given one. Only the most recently requested map is ever handed
+ * back, asking for another one cancels the one in progress.
+ *
+ * @author McKillaGorilla
+ */
+public class MapLoader {
+    // ALL THE LOADING IS DONE HERE, ONE MAP AT A TIME
+    private ExecutorService executor;
+
+    // FINISHED LOADS ARE HANDED BACK THROUGH THIS, ON THE JAVAFX THREAD
+    private Executor completions;
+
+    // WHERE MAP IMAGES ARE DECODED
+    private ImageCache imageCache;
+
+    // THIS KNOWS WHICH SUB REGIONS HAVE THEIR OWN DATA
+    private PlayableRegionResolver playableRegions;
+
+    // THE LOAD IN PROGRESS, IF THERE IS ONE
+    private Future<?> currentLoad;
+
+    // COUNTS THE REQUESTS, A FINISHED LOAD IS ONLY HANDED BACK IF NO
+    // OTHER REQUEST HAS BEEN MADE SINCE. NOTE THAT THIS AND currentLoad
+    // ARE ONLY EVER USED ON THE JAVAFX THREAD
+    private int generation;
+
+    /**
+     * Constructor for a loader that decodes maps through initImageCache and
+     * finds playable sub regions with initPlayableRegions.
+     */
+    public MapLoader(ImageCache initImageCache, PlayableRegionResolver initPlayableRegions) {
+        this(initImageCache, initPlayableRegions, Platform::runLater);
+    }
+
+    /**
+     * Constructor for a loader that hands finished loads back through
+     * initCompletions, which must run them on the JavaFX thread.
+     */
+    public MapLoader(ImageCache initImageCache, PlayableRegionResolver initPlayableRegions,
+            Executor initCompletions) {
+        completions = initCompletions;
+        imageCache = initImageCache;
+        playableRegions = initPlayableRegions;
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread worker = new Thread(r, "Map Loader");
+            worker.setDaemon(true);
+            return worker;
+        });
+        currentLoad = null;
+        generation = 0;
+    }
+
+    /**
+     * Starts loading a map in the background, cancelling any load already
+     * in progress. This must be called on the JavaFX thread.
+     *
+     * @param regionMap The region whose map is to be loaded.
+     *
+     * @param path Path of the directory with the region's files.
+     *
+     * @param currentWorld The world the region's data is read into, which
+     * only reads it the first time it's needed.
+     *
+     * @param onLoaded Called on the JavaFX thread with the loaded map, or
+     * with null if it couldn't be loaded.
+     */
+    public void load(String regionMap, String path, WorldDataManager currentWorld,
+            Consumer<LoadedMap> onLoaded) {
+        load(regionMap, path, currentWorld, null, onLoaded);
+    }
+
+    /**
+     * Starts loading a map in the background like the other load, except
+     * that if prefetch isn't null it's waited on for the map first, which
+     * is only loaded here if the prefetch didn't get it.
+     *
+     * @param prefetch A prefetch of the same map that's already running,
+     * or null if there isn't one.
+     */
+    public void load(String regionMap, String path, WorldDataManager currentWorld,
+            Future<LoadedMap> prefetch, Consumer<LoadedMap> onLoaded) {
+        cancel();
+        final int loadGeneration = generation;
+        currentLoad = executor.submit(() -> {
+            LoadedMap loadedMap = null;
+            try {
+                if (prefetch != null) {
+                    loadedMap = awaitPrefetch(prefetch);
+                }
+                if ((loadedMap == null) && !Thread.currentThread().isInterrupted()) {
+                    loadedMap = loadMap(regionMap, path, currentWorld);
+                }
+            } catch (RuntimeException ex) {
+                Logger.getLogger(MapLoader.class.getName()).log(Level.SEVERE, null, ex);
+            }
+            final LoadedMap result = loadedMap;
+            completions.execute(() -> {
+                if (loadGeneration == generation) {
+                    currentLoad = null;
+                    onLoaded.accept(result);
+                }
+            });
+        });
+    }
+
+    /**
+     * Cancels the load in progress, if there is one, making sure it's
+     * never handed back. This must be called on the JavaFX thread.
+     */
+    public void cancel() {
+        if (currentLoad != null) {
+            currentLoad.cancel(true);
+            currentLoad = null;
+        }
+        generation++;
+    }
+
+    /**
+     * Tests to see if a map is being loaded.
+     */
+    public boolean isLoading() {
+        return currentLoad != null;
+    }
+
+    /**
+     * Loads a map on the calling thread.
+     *
+     * @return The loaded map, or null if there is no map image or the
+     * calling thread was interrupted.
+     */
+    public LoadedMap loadMap(String regionMap, String path, WorldDataManager currentWorld) {
+        Image mapImage = imageCache.getImage(path + regionMap + MAPS_FILE_PATH);
+        if ((mapImage == null) || Thread.currentThread().isInterrupted()) {
+            return null;
+        }
+
+        // THE WORLD KEEPS EVERY LEVEL IT READS, SO GOING BACK TO A
+        // REGION DOESN'T READ ITS FILE AGAIN
+        Region mapRegion = currentWorld.loadLevel(new File(path + regionMap + XML_FILE_PATH));
+        ArrayList<Region> subRegions = currentWorld.getSubRegions(mapRegion);
+        if (Thread.currentThread().isInterrupted()) {
+            return null;
+        }
+
+        // COLLECT THE NAMES AND COLORS OF ALL THE SUB REGIONS,
+        // THEIR POSITIONS WILL BE THEIR ORDINALS IN THE INDEX
+        int numRegions = subRegions.size();
+        String[] regionNames = new String[numRegions];
+        int[] regionColors = new int[numRegions];
+        int ordinal = 0;
+        for (Region region : subRegions) {
+            regionNames[ordinal] = region.getName();
+            regionColors[ordinal] = region.getRGB();
+            ordinal++;
+        }
+
+        // USE THE PRECOMPILED INDEX IF IT WAS BUILT FROM THIS VERY MAP,
+        // OTHERWISE INDEX THE MAP NOW, WHICH FINDS EVERY SUB REGION'S
+        // PIXELS AS WELL AS THE BORDERS
+        RegionIndex regionIndex = loadMapIndex(path, regionMap, regionNames, regionColors);
+
+        // A CANCELLED LOAD USUALLY FAILS TO READ THE INDEX, SINCE BEING
+        // INTERRUPTED CLOSES THE FILE, SO IT MUST NOT GO ON TO INDEX THE
+        // WHOLE MAP INSTEAD
+        if (Thread.currentThread().isInterrupted()) {
+            return null;
+        }
+        if (regionIndex == null) {
+            regionIndex = RegionIndex.build(mapImage.getPixelReader(),
+                    (int) mapImage.getWidth(), (int) mapImage.getHeight(),
+                    regionNames, regionColors);
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+        }
+        return new LoadedMap(regionMap, path, mapImage, regionIndex, mapRegion, subRegions,
+                playableRegions.getPlayableSubRegions(path));
+    }
+
+    // HELPER METHOD FOR WAITING ON A PREFETCH, IT RETURNS null IF THE
+    // PREFETCH DIDN'T GET THE MAP OR THIS LOAD WAS CANCELLED
+    private static LoadedMap awaitPrefetch(Future<LoadedMap> prefetch) {
+        try {
+            return prefetch.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (CancellationException | ExecutionException ex) {
+            // IT WILL BE LOADED HERE INSTEAD
+        }
+        return null;
+    }
+
+    // HELPER METHOD FOR LOADING THE INDEX THAT MapIndexCompiler BUILT
+    // FOR A MAP, NOTE THAT IT RETURNS null IF THERE IS NO USABLE ONE
+    private RegionIndex loadMapIndex(String path, String regionMap, String[] regionNames, int[] regionColors) {
+        File mapFile = new File(path + regionMap + MAPS_FILE_PATH);
+        File indexFile = new File(path + regionMap + MAP_INDEX_FILE_PATH);
+        if (!indexFile.exists()) {
+            return null;
+        }
+        try {
+            RegionIndex regionIndex = MapIndexFile.load(indexFile, MapIndexFile.checksum(mapFile));
+            if ((regionIndex != null) && regionIndex.matches(regionNames, regionColors)) {
+                return regionIndex;
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(MapLoader.class.getName()).log(Level.WARNING, null, ex);
+        }
+        return null;
+    }
+}
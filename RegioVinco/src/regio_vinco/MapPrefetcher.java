@@ -0,0 +1,232 @@
+package regio_vinco;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import world_data.WorldDataManager;
+
+/**
+ * This class loads the maps of the sub regions the user is hovering over
+ * in navigation mode before they're clicked. Once the mouse has stayed on
+ * the same sub region for a short dwell time, its map is loaded in the
+ * background into a small cache of LoadedMaps, which reloadMap checks
+ * before asking MapLoader for a map. Moving on to another sub region, or
+ * off the map, cancels the prefetch of the one that was left, and only a
+ * few prefetches are ever allowed to run at once. Clicking a sub region
+ * whose prefetch is already running hands that prefetch over to the load
+ * instead of starting the map again.
+ *
+ * @author McKillaGorilla
+ */
+public class MapPrefetcher {
+    // THE DEFAULT SETTINGS
+    public static final long DEFAULT_DWELL_MILLIS = 250;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 2;
+    public static final int DEFAULT_MAX_MAPS = 8;
+
+    // THIS DOES THE ACTUAL LOADING
+    private MapLoader mapLoader;
+
+    // PREFETCHES WAIT OUT THE DWELL TIME AND THEN RUN HERE
+    private ScheduledExecutorService executor;
+
+    // HOW LONG THE MOUSE MUST STAY ON A SUB REGION BEFORE WE PREFETCH IT
+    private long dwellMillis;
+
+    // HOW MANY PREFETCHES MAY RUN AT ONCE, AND HOW MANY ARE RUNNING
+    private int maxInFlight;
+    private AtomicInteger inFlight;
+
+    // THE MOST MAPS WE'LL KEEP
+    private int maxMaps;
+
+    // THE LOADED MAPS BY KEY, ORDERED FROM LEAST TO MOST RECENTLY USED.
+    // NOTE THAT IT'S ONLY USED WHILE SYNCHRONIZED ON THIS PREFETCHER
+    private LinkedHashMap<String, LoadedMap> maps;
+
+    // THE PREFETCH FOR THE SUB REGION BEING HOVERED OVER, WHICH IS ONLY
+    // EVER USED ON THE JAVAFX THREAD
+    private ScheduledFuture<LoadedMap> pendingPrefetch;
+    private String pendingKey;
+
+    // FOR REPORTING HOW WELL PREFETCHING IS WORKING
+    private AtomicInteger hits;
+    private AtomicInteger misses;
+
+    /**
+     * Constructor for a prefetcher with the default settings.
+     */
+    public MapPrefetcher(MapLoader initMapLoader) {
+        this(initMapLoader, DEFAULT_DWELL_MILLIS, DEFAULT_MAX_IN_FLIGHT, DEFAULT_MAX_MAPS);
+    }
+
+    /**
+     * Constructor for a prefetcher that waits initDwellMillis before
+     * prefetching, runs at most initMaxInFlight prefetches at once, and
+     * keeps at most initMaxMaps maps.
+     */
+    public MapPrefetcher(MapLoader initMapLoader, long initDwellMillis, int initMaxInFlight, int initMaxMaps) {
+        mapLoader = initMapLoader;
+        dwellMillis = initDwellMillis;
+        maxInFlight = initMaxInFlight;
+        maxMaps = initMaxMaps;
+        inFlight = new AtomicInteger(0);
+        hits = new AtomicInteger(0);
+        misses = new AtomicInteger(0);
+        maps = new LinkedHashMap<String, LoadedMap>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LoadedMap> eldest) {
+                return size() > maxMaps;
+            }
+        };
+        executor = Executors.newScheduledThreadPool(maxInFlight, r -> {
+            Thread worker = new Thread(r, "Map Prefetcher");
+            worker.setDaemon(true);
+            worker.setPriority(Thread.MIN_PRIORITY);
+            return worker;
+        });
+        pendingPrefetch = null;
+        pendingKey = null;
+    }
+
+    /**
+     * Called on the JavaFX thread whenever the hovered sub region changes,
+     * it schedules a prefetch of that sub region's map after the dwell
+     * time, cancelling the prefetch of the one that was left.
+     *
+     * @param regionMap The hovered sub region, or null if there isn't one.
+     *
+     * @param path Path of the directory with the sub region's files, which
+     * must be what reloadMap would use for it.
+     *
+     * @param currentWorld The world the sub region's data is read into.
+     */
+    public void hover(String regionMap, String path, WorldDataManager currentWorld) {
+        String key = (regionMap == null) ? null : makeKey(regionMap, path);
+        if ((key != null) && key.equals(pendingKey)) {
+            return;
+        }
+        cancelHover();
+        if ((key == null) || contains(key)) {
+            return;
+        }
+        pendingKey = key;
+        pendingPrefetch = executor.schedule(() -> {
+            return prefetch(key, regionMap, path, currentWorld);
+        }, dwellMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Called on the JavaFX thread when a sub region's map is asked for, it
+     * hands over the prefetch of that map if it has already started, so
+     * that it isn't thrown away only to load the same map again. Any other
+     * prefetch is cancelled, as is one that's still waiting out the dwell
+     * time.
+     *
+     * @return The prefetch of the map, or null if it hasn't started.
+     */
+    public Future<LoadedMap> takeHover(String regionMap, String path) {
+        Future<LoadedMap> prefetch = null;
+        if (makeKey(regionMap, path).equals(pendingKey)
+                && (pendingPrefetch.getDelay(TimeUnit.MILLISECONDS) <= 0)) {
+            prefetch = pendingPrefetch;
+            pendingPrefetch = null;
+            pendingKey = null;
+        }
+        cancelHover();
+        return prefetch;
+    }
+
+    /**
+     * Cancels the prefetch of the sub region being hovered over, if it
+     * hasn't finished already.
+     */
+    public void cancelHover() {
+        if (pendingPrefetch != null) {
+            pendingPrefetch.cancel(true);
+        }
+        pendingPrefetch = null;
+        pendingKey = null;
+    }
+
+    /**
+     * Accessor method for a map that's already been loaded.
+     *
+     * @return The loaded map, or null if we don't have it.
+     */
+    public LoadedMap getMap(String regionMap, String path) {
+        LoadedMap loadedMap;
+        synchronized (this) {
+            loadedMap = maps.get(makeKey(regionMap, path));
+        }
+        if (loadedMap == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return loadedMap;
+    }
+
+    /**
+     * Keeps a loaded map, so that maps loaded by MapLoader can also be
+     * returned to without loading them again.
+     */
+    public synchronized void addMap(LoadedMap loadedMap) {
+        maps.put(makeKey(loadedMap.getRegionMap(), loadedMap.getPath()), loadedMap);
+    }
+
+    public synchronized void clear() {
+        maps.clear();
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // HELPER METHOD FOR LOADING A MAP, IT RETURNS THE MAP OR null IF IT
+    // COULDN'T BE LOADED. NOTE THAT IT'S SKIPPED IF TOO MANY PREFETCHES
+    // ARE ALREADY RUNNING
+    private LoadedMap prefetch(String key, String regionMap, String path, WorldDataManager currentWorld) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            return null;
+        }
+        try {
+            LoadedMap loadedMap = get(key);
+            if (loadedMap == null) {
+                loadedMap = mapLoader.loadMap(regionMap, path, currentWorld);
+                if ((loadedMap != null) && !Thread.currentThread().isInterrupted()) {
+                    addMap(loadedMap);
+                }
+            }
+            return loadedMap;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private synchronized boolean contains(String key) {
+        return maps.containsKey(key);
+    }
+
+    private synchronized LoadedMap get(String key) {
+        return maps.get(key);
+    }
+
+    private static String makeKey(String regionMap, String path) {
+        return path + regionMap;
+    }
+}
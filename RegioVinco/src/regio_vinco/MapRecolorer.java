@@ -0,0 +1,108 @@
+package regio_vinco;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritablePixelFormat;
+import javafx.scene.paint.Color;
+
+/**
+ * This class recolors whole regions of the map at once. Rather than
+ * setting one pixel at a time, it copies the region's bounding box into a
+ * reusable ARGB buffer, fills each of the region's horizontal spans in
+ * that buffer, and then writes the bounding box back with a single
+ * setPixels call. This way only the bounding box of the region is ever
+ * touched, and recoloring costs two bulk transfers no matter how many
+ * pixels the region has.
+ *
+ * @author McKillaGorilla
+ */
+public class MapRecolorer {
+    // THE MAP IMAGE WE'LL BE RECOLORING
+    private PixelReader mapPixelReader;
+    private PixelWriter mapPixelWriter;
+
+    // ALL THE PIXELS ARE MOVED AS ARGB INTS
+    private WritablePixelFormat<IntBuffer> format;
+
+    // THIS IS REUSED FOR EVERY RECOLORING AND ONLY EVER GROWS
+    private int[] buffer;
+
+    /**
+     * Constructor for a recolorer that will change the pixels of the image
+     * read by initReader and written by initWriter.
+     */
+    public MapRecolorer(PixelReader initReader, PixelWriter initWriter) {
+        mapPixelReader = initReader;
+        mapPixelWriter = initWriter;
+        format = PixelFormat.getIntArgbInstance();
+        buffer = new int[0];
+    }
+
+    /**
+     * Changes the color of every pixel of a region.
+     *
+     * @param index The index of the map being recolored.
+     *
+     * @param ordinal The ordinal of the region to recolor.
+     *
+     * @param color The region's new color.
+     */
+    public void recolorRegion(RegionIndex index, int ordinal, Color color) {
+        if (!index.isOnMap(ordinal)) {
+            return;
+        }
+        fillSpans(index.getSpans(ordinal),
+                index.getMinX(ordinal), index.getMinY(ordinal),
+                index.getMaxX(ordinal), index.getMaxY(ordinal),
+                toArgb(color));
+    }
+
+    /**
+     * Changes the color of every border pixel of the map.
+     */
+    public void recolorBorders(RegionIndex index, Color color) {
+        fillSpans(index.getBorderSpans(), 0, 0, index.getWidth() - 1, index.getHeight() - 1, toArgb(color));
+    }
+
+    /**
+     * Fills a list of spans, all of which must be inside the provided
+     * bounding box, with a single ARGB color.
+     */
+    public void fillSpans(int[] spans, int minX, int minY, int maxX, int maxY, int argb) {
+        if (spans.length == 0) {
+            return;
+        }
+        int boxWidth = maxX - minX + 1;
+        int boxHeight = maxY - minY + 1;
+        if (buffer.length < boxWidth * boxHeight) {
+            buffer = new int[boxWidth * boxHeight];
+        }
+
+        // GET WHAT'S CURRENTLY IN THE BOX, SO PIXELS OF OTHER
+        // REGIONS INSIDE IT ARE WRITTEN BACK UNCHANGED
+        mapPixelReader.getPixels(minX, minY, boxWidth, boxHeight, format, buffer, 0, boxWidth);
+
+        // FILL IN THE SPANS
+        for (int i = 0; i < spans.length; i += RegionIndex.SPAN_SIZE) {
+            int start = ((spans[i] - minY) * boxWidth) + (spans[i + 1] - minX);
+            Arrays.fill(buffer, start, start + spans[i + 2], argb);
+        }
+
+        // AND PUT THE BOX BACK
+        mapPixelWriter.setPixels(minX, minY, boxWidth, boxHeight, format, buffer, 0, boxWidth);
+    }
+
+    /**
+     * Packs a color into a single ARGB int.
+     */
+    public static int toArgb(Color color) {
+        int a = (int) Math.round(color.getOpacity() * 255);
+        int r = (int) Math.round(color.getRed() * 255);
+        int g = (int) Math.round(color.getGreen() * 255);
+        int b = (int) Math.round(color.getBlue() * 255);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
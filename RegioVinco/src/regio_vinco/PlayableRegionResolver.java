@@ -0,0 +1,160 @@
+package regio_vinco;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import static regio_vinco.RegioVinco.*;
+
+/**
+ * This class figures out which sub-regions of a map can themselves be
+ * played, meaning they have their own directory with a region data file,
+ * and which other files the game's regions have, like their flags. The
+ * whole data directory is walked once, the first time anything is asked,
+ * and every file in it is remembered by the directory it's in. After that
+ * every answer comes from memory, so loading maps and starting games never
+ * go to the file system for it. It may be shared by the JavaFX thread and
+ * the map loader.
+ *
+ * Note that only files under the data directory are known, anything else
+ * is taken not to exist.
+ *
+ * @author McKillaGorilla
+ */
+public class PlayableRegionResolver {
+    // THE DIRECTORY WHOSE FILES WE KNOW ABOUT
+    private final Path rootDir;
+
+    // THE NAMES OF THE FILES IN EACH DIRECTORY, BY NORMALIZED ABSOLUTE
+    // PATH, WHICH IS null UNTIL THE DATA DIRECTORY HAS BEEN WALKED
+    private HashMap<String, HashSet<String>> filesByDir;
+
+    // THE PLAYABLE SUB-REGIONS OF EACH DIRECTORY, BY THE SAME PATHS
+    private HashMap<String, HashSet<String>> playableByDir;
+
+    /**
+     * Default constructor, it knows the files under DATA_PATH.
+     */
+    public PlayableRegionResolver() {
+        this(new File(DATA_PATH));
+    }
+
+    /**
+     * Constructor for a resolver that knows the files under initRootDir.
+     */
+    public PlayableRegionResolver(File initRootDir) {
+        rootDir = initRootDir.toPath().toAbsolutePath().normalize();
+        filesByDir = null;
+        playableByDir = null;
+    }
+
+    /**
+     * Tests to see if a sub-region has its own data and so may be played.
+     *
+     * @param parentPath Path of the directory containing the sub-region's
+     * directory, ending with a slash like RegioVincoGame's path.
+     *
+     * @param subRegion Name of the sub-region.
+     *
+     * @return true if the sub-region has its own region data file.
+     */
+    public synchronized boolean isPlayable(String parentPath, String subRegion) {
+        return getPlayableSubRegions(parentPath).contains(subRegion);
+    }
+
+    /**
+     * Accessor method for the names of all the playable sub-regions of a
+     * directory.
+     *
+     * @return The names, which may not be changed.
+     */
+    public synchronized HashSet<String> getPlayableSubRegions(String parentPath) {
+        scan();
+        HashSet<String> playable = playableByDir.get(makeKey(Paths.get(parentPath)));
+        return (playable == null) ? new HashSet<>() : playable;
+    }
+
+    /**
+     * Tests to see if a file exists, without going to the file system.
+     *
+     * @param filePath Path of the file, which must be under the data
+     * directory to be found.
+     *
+     * @return true if the file was there when the data directory was
+     * walked.
+     */
+    public synchronized boolean hasFile(String filePath) {
+        scan();
+        Path file = Paths.get(filePath).toAbsolutePath().normalize();
+        Path dir = file.getParent();
+        HashSet<String> files = (dir == null) ? null : filesByDir.get(makeKey(dir));
+        return (files != null) && files.contains(file.getFileName().toString());
+    }
+
+    /**
+     * Forgets everything, forcing the data directory to be walked again.
+     */
+    public synchronized void clear() {
+        filesByDir = null;
+        playableByDir = null;
+    }
+
+    // HELPER METHOD FOR WALKING THE DATA DIRECTORY, IF IT HASN'T BEEN YET,
+    // REMEMBERING EVERY FILE AND EVERY DIRECTORY WITH ITS OWN DATA FILE
+    private void scan() {
+        if (filesByDir != null) {
+            return;
+        }
+        filesByDir = new HashMap<>();
+        playableByDir = new HashMap<>();
+        try {
+            Files.walkFileTree(rootDir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    Path dir = file.getParent();
+                    String fileName = file.getFileName().toString();
+                    add(filesByDir, dir, fileName);
+
+                    // A DIRECTORY WITH A DATA FILE NAMED AFTER IT IS A
+                    // PLAYABLE SUB-REGION OF THE DIRECTORY IT'S IN
+                    String dirName = dir.getFileName().toString();
+                    if (fileName.equals(dirName + XML_FILE_PATH) && (dir.getParent() != null)) {
+                        add(playableByDir, dir.getParent(), dirName);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException ex) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ex) {
+            Logger.getLogger(PlayableRegionResolver.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+
+    private static void add(HashMap<String, HashSet<String>> namesByDir, Path dir, String name) {
+        String key = makeKey(dir);
+        HashSet<String> names = namesByDir.get(key);
+        if (names == null) {
+            names = new HashSet<>();
+            namesByDir.put(key, names);
+        }
+        names.add(name);
+    }
+
+    // HELPER METHOD FOR THE KEY OF A DIRECTORY, WHICH DOESN'T DEPEND ON
+    // HOW ITS PATH WAS WRITTEN
+    private static String makeKey(Path dir) {
+        return dir.toAbsolutePath().normalize().toString();
+    }
+}
@@ -1,11 +1,16 @@
 package regio_vinco;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javafx.application.Application;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import world_data.WorldDataManager;
-import world_io.WorldIO;
+import world_io.WorldSnapshotIO;
+import world_io.WorldStreamIO;
+import world_io.WorldTreeLoader;
 
 /**
  * This is the Regio Vinco game application. Note that it extends the
@@ -31,6 +36,11 @@ public class RegioVinco extends Application {
     
     public static final String DATA_PATH = "./data/";
     public static final String CONTINENT_DATA_PATH = "./data/The World/";
+    public static final String WORLD_SNAPSHOT_FILE_PATH = "./data/The World.snapshot";
+    
+    // SET THIS SYSTEM PROPERTY TO true, AS WITH -Dregio_vinco.kiosk=true,
+    // TO LOAD ALL THE REGION DATA AT ONCE WHEN THE GAME STARTS
+    public static final String KIOSK_PROPERTY = "regio_vinco.kiosk";
     
     // FOR THIS APP WE'RE ONLY PLAYING WITH ONE MAP, BUT
     // IN THE FUTURE OUR GAMES WILL USE LOTS OF THEM
@@ -40,6 +50,13 @@ public class RegioVinco extends Application {
     public static final String REGION_TITLE = "Afghanistan Provinces";
     public static final String WORLD_MAP_FILE_PATH = MAPS_PATH + "The World Map.png";
     public static final String MAPS_FILE_PATH = " Map.png";
+    public static final String MAP_INDEX_FILE_PATH = " Map.index";
+    public static final String FLAG_FILE_PATH = " flag.png";
+    public static final String SCORES_FILE_PATH = " Scores.txt";
+    public static final String SCORES_JOURNAL_PATH = "./data/Scores.journal";
+    
+    // THE MOST MEMORY DECODED IMAGES MAY TAKE UP, IN BYTES
+    public static final long IMAGE_CACHE_MAX_BYTES = 256L * 1024 * 1024;
 
     // HERE ARE THE PATHS TO THE REST OF THE IMAGES WE'LL USE
     public static final String GUI_PATH = "./data/gui/";
@@ -173,6 +190,8 @@ public class RegioVinco extends Application {
     public static final String SUB_REGION_TYPE = "SUB_REGION_TYPE";
     public static final int MAP_X = 0;
     public static final int MAP_Y = 0;
+    public static final int LOADING_X = 400;
+    public static final int LOADING_Y = 275;
 
     // THE WIN DIALOG
     public static final String WIN_DISPLAY_TYPE = "WIN_DISPLAY";
@@ -187,6 +206,12 @@ public class RegioVinco extends Application {
     public static final Color REGION_NAME_COLOR = RegioVincoDataModel.makeColor(240, 240, 240);
 
     public static final int SUB_STACK_VELOCITY = 2;
+    
+    // THE STYLE SHEET, WHICH IS NEXT TO THE GAME'S CLASSES, AND THE
+    // STYLE CLASS AND TEXT COLOR OF THE SUB REGION TO FIND
+    public static final String STYLE_SHEET = "RegioVinco.css";
+    public static final String STACK_BOTTOM_STYLE_CLASS = "stack-bottom";
+    public static final Color STACK_BOTTOM_TEXT_COLOR = RegioVincoDataModel.makeColor(255, 51, 0);
     public static final int FIRST_REGION_Y_IN_STACK = GAME_HEIGHT - 50;
 
     public static final String AUDIO_DIR = "./data/audio/";
@@ -209,8 +234,26 @@ public class RegioVinco extends Application {
     public void start(Stage primaryStage) {
         WorldDataManager worldDataManager = new WorldDataManager();
         File schemaFile = new File(XML_PATH + "RegionData.xsd");
-        WorldIO worldIO = new WorldIO(schemaFile);
+        WorldStreamIO worldIO = new WorldStreamIO(schemaFile);
         worldDataManager.setWorldImporterExporter(worldIO);
+        
+        // A KIOSK READS EVERY DATA FILE NOW, ON ALL CORES, SO IT NEVER
+        // HAS TO LATER. OTHERWISE IF THE SNAPSHOT OF ALL THE REGION DATA
+        // IS UP TO DATE THE WORLD IS FILLED IN FROM IT, AND IF NOT EACH
+        // LEVEL IS READ FROM ITS FILE WHEN IT'S FIRST NEEDED
+        File snapshotFile = new File(WORLD_SNAPSHOT_FILE_PATH);
+        if (Boolean.getBoolean(KIOSK_PROPERTY)) {
+            WorldTreeLoader loader = new WorldTreeLoader(worldIO);
+            loader.preload(new File(CONTINENT_DATA_PATH), worldDataManager);
+            Logger.getLogger(RegioVinco.class.getName()).log(Level.INFO, loader.getTimingReport());
+        }
+        else if (!WorldSnapshotIO.isStale(snapshotFile, new File(CONTINENT_DATA_PATH))) {
+            try {
+                worldDataManager.setRegionStore(WorldSnapshotIO.readStore(snapshotFile));
+            } catch (IOException ex) {
+                Logger.getLogger(RegioVinco.class.getName()).log(Level.WARNING, null, ex);
+            }
+        }
 	RegioVincoGame game = new RegioVincoGame(primaryStage, worldDataManager);
 	game.startGame();
         
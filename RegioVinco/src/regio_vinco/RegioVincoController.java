@@ -82,6 +82,10 @@ public class RegioVincoController implements KeyPressHook {
         ((RegioVincoDataModel)game.getDataModel()).mouseMoved(game, x, y);
     }
     
+    public void processMouseExited(){
+        ((RegioVincoDataModel)game.getDataModel()).mouseExited(game);
+    }
+    
     public void processNameModeRequest(){
         //System.out.println("anything");
         game.gameOn = true;
@@ -139,16 +143,10 @@ public class RegioVincoController implements KeyPressHook {
         KeyCode keyCode = ke.getCode();
         if (keyCode == KeyCode.C)
         {
-            try
-            {    
-                game.beginUsingData();
+            game.enqueueCommand(() -> {
                 RegioVincoDataModel dataModel = (RegioVincoDataModel)(game.getDataModel());
-                dataModel.removeAllButOneFromeStack(game);         
-            }
-            finally
-            {
-                game.endUsingData();
-            }
+                dataModel.removeAllButOneFromeStack(game);
+            });
         }
     }   
 }
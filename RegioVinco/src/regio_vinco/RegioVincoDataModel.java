@@ -1,15 +1,12 @@
 package regio_vinco;
 
 import audio_manager.AudioManager;
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.LinkedList;
-import java.util.Scanner;
+import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.scene.control.Label;
@@ -18,11 +15,12 @@ import javafx.scene.image.ImageView;
 import javafx.scene.image.PixelReader;
 import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
-import javafx.scene.text.Text;
 import javax.sound.midi.InvalidMidiDataException;
 import javax.sound.midi.MidiUnavailableException;
 import javax.sound.sampled.LineUnavailableException;
@@ -46,6 +44,9 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
     private PixelReader mapPixelReader;
     private PixelWriter mapPixelWriter;
     
+    // THIS CHANGES THE COLORS OF WHOLE REGIONS OF THE MAP AT ONCE
+    private MapRecolorer mapRecolorer;
+    
     private  long startTime;
     Label time;
     Label regionsFoundLabel;
@@ -55,6 +56,15 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
     Label regionsLeft;
     Label incorrectGuesses;
     
+    // THESE ONLY CHANGE THE LABELS ABOVE WHEN WHAT THEY SHOW CHANGES
+    private HUDBinding timeBinding;
+    private HUDBinding regionsFoundBinding;
+    private HUDBinding regionsLeftBinding;
+    private HUDBinding incorrectGuessesBinding;
+    
+    // THE SUB REGION THAT'S STYLED AS THE BOTTOM OF THE STACK
+    private int highlightedOrdinal = RegionIndex.NO_REGION;
+    
     //Label regionLabel = new Label();
     //ImageView flag = new ImageView();
     
@@ -69,11 +79,16 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
     // AND OTHER GAME DATA
     private String regionName;
     private String subRegionsType;
-    private HashMap<Color, String> colorToSubRegionMappings;
     private HashMap<String, Color> subRegionToColorMappings;
-    private HashMap<String, ArrayList<int[]>> pixels;
+    private RegionIndex regionIndex;
+    
+    // THIS UPDATES THE NAVIGATION DISPLAY AS THE MOUSE MOVES OVER THE MAP
+    private HoverState hoverState = new HoverState();
     private LinkedList<String> redSubRegions;
-    private LinkedList<MovableText> subRegionStack;
+    private SubRegionStack subRegionStack;
+    
+    // THE GAME TO TELL WHEN THE PLAYER WINS, SET EACH TIME A GAME STARTS
+    private RegioVincoGame currentGame;
     
     
     /**
@@ -82,9 +97,8 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
      */
     public RegioVincoDataModel() {
 	// INITIALIZE OUR DATA STRUCTURES
-	colorToSubRegionMappings = new HashMap();
 	subRegionToColorMappings = new HashMap();
-	subRegionStack = new LinkedList();
+	subRegionStack = new SubRegionStack(STACK_X, this::bindStackNode);
 	redSubRegions = new LinkedList();
     }
     //map Image
@@ -92,26 +106,22 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
 	mapImage = initMapImage;
 	mapPixelReader = mapImage.getPixelReader();
 	mapPixelWriter = mapImage.getPixelWriter();
+	mapRecolorer = new MapRecolorer(mapPixelReader, mapPixelWriter);
     }
 
     public void removeAllButOneFromeStack(RegioVincoGame game) {
 	while (subRegionStack.size() > 1) {
             
-            Pane gameLayer = ((RegioVincoGame)game).getGameLayer();
-            MovableText firstLabel = subRegionStack.peekFirst();
-	    //MovableText Label = subRegionStack.removeFirst();
-	    //String subRegionName = Label.getText().getText();
-            gameLayer.getChildren().remove(firstLabel.getLabel());
-            subRegionStack.removeFirst();
+            int firstOrdinal = subRegionStack.removeBottom();
             
 	    // TURN THE TERRITORY GREEN
             //needs to accomodate leader, capital and flag
-           changeSubRegionColorOnMap(game, firstLabel.getRegion(), Color.GREEN);
+           changeSubRegionColorOnMap(game, regionIndex.getRegionName(firstOrdinal), Color.GREEN);
             
 	
         }
         //needs to accomodate leader, capital and flag
-         MovableText lastOne = subRegionStack.peekFirst();
+         MovableText lastOne = subRegionStack.getBottom();
          String lastRegion = "";
          try{
             lastRegion = lastOne.getRegion();
@@ -182,106 +192,79 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
     }
 
     public int getRegionsFound() {
-	return colorToSubRegionMappings.keySet().size() - subRegionStack.size();
+	return getNumberOfSubRegions() - subRegionStack.size();
     }
 
     public int getRegionsNotFound() {
 	return subRegionStack.size();
     }
     
-    public LinkedList<MovableText> getSubRegionStack() {
+    public SubRegionStack getSubRegionStack() {
 	return subRegionStack;
     }
     
-    public String getSubRegionMappedToColor(Color colorKey) {
-	return colorToSubRegionMappings.get(colorKey);
+    /**
+     * Finds the sub region currently drawn at a map pixel. Note that it
+     * reads the packed pixel and looks it up in the region index's color
+     * table, so nothing is allocated, which matters for mouse handling.
+     *
+     * @return The name of the sub region, or null if the pixel isn't
+     * showing any sub region's original color.
+     */
+    public String getSubRegionAt(int x, int y) {
+	if ((regionIndex == null) || (x < 0) || (y < 0)
+		|| (x >= regionIndex.getWidth()) || (y >= regionIndex.getHeight())) {
+	    return null;
+	}
+	int ordinal = regionIndex.getColorTable().get(mapPixelReader.getArgb(x, y));
+	if (ordinal == RegionIndex.NO_REGION) {
+	    return null;
+	}
+	return regionIndex.getRegionName(ordinal);
     }
     
     public Color getColorMappedToSubRegion(String subRegion) {
 	return subRegionToColorMappings.get(subRegion);
     }
     
-    public HashMap getColorToSubRegionMappings(){
-        return colorToSubRegionMappings;
-    }
-    
-    public HashMap getPixelMap(){
-        return pixels;
+    public RegionIndex getRegionIndex(){
+        return regionIndex;
     }
     // MUTATOR METHODS
 
-    public void setPixelMap(HashMap pixels){
-        this.pixels = pixels;
-    }
-    public void addColorToSubRegionMappings(Color colorKey, String subRegionName) {
-	colorToSubRegionMappings.put(colorKey, subRegionName);
+    public void setRegionIndex(RegionIndex initRegionIndex){
+        regionIndex = initRegionIndex;
+        hoverState.reset();
     }
-
     public void addSubRegionToColorMappings(String subRegionName, Color colorKey) {
 	subRegionToColorMappings.put(subRegionName, colorKey);
     }
     
     public void mouseMoved(RegioVincoGame game, int x, int y){
-        String flagPath;
-        
-        Color pixelColor = mapPixelReader.getColor(x, y);
-        String overSubRegion = colorToSubRegionMappings.get(pixelColor);
-        
-        flagPath = game.path + overSubRegion + "/" + overSubRegion + " flag.png";
-        game.flag.setImage(game.loadImage(flagPath));
-            
-        if(overSubRegion == null){
-            //System.out.println(overSubRegion + " OverSubRegion");
-            game.regionLabel.setVisible(false);
-            game.highScore.setVisible(false);
-            game.bestTime.setVisible(false);
-            game.leastGuesses.setVisible(false);
-            game.flag.setVisible(false);
-//            game.flagLabel.setVisible(false);
-//            game.flagLabel.setStyle("-fx-background-color: transparent");
-        }
-        else if(pixelColor != Color.PINK){
-            game.flag.setVisible(true);
-
-            game.regionLabel.setVisible(true);
-            game.regionLabel.setText(overSubRegion);
-            
-            File score = new File(game.path  +  overSubRegion + "/" + overSubRegion + " Scores.txt");
-            System.out.println(game.path);
-            if(score.exists()){
-                try {
-                    game.sc = new Scanner(score);
-                    game.highScore.setText("High Score: " + game.sc.next() );
-                    game.bestTime.setText("Best Time: " + game.sc.next());
-                    game.leastGuesses.setText("Least Incorrect Guesses: " + game.sc.next());
-                
-                } catch (FileNotFoundException ex) {
-                    System.out.println("File Not Found Exception");
-                }
-            }
-            game.highScore.setVisible(true);
-            //game.highScore.setText("High Score: ");
-            
-            
-            game.bestTime.setVisible(true);
-            //game.bestTime.setText("Best Time: ");
-            
-            game.leastGuesses.setVisible(true);
-            //game.leastGuesses.setText("Least Guesses: ");
-            
-            
-            game.flag.setLayoutX(940);
-            game.flag.setLayoutY(205);
-        }
+        // THE HOVER STATE ONLY DOES ANY WORK IF WE'VE MOVED ONTO
+        // A DIFFERENT SUB REGION
+        hoverState.update(game, getSubRegionAt(x, y));
+    }
+    
+    public void mouseExited(RegioVincoGame game){
+        // NOTHING IS HOVERED ONCE THE MOUSE LEAVES THE MAP, WHICH ALSO
+        // CANCELS THE PREFETCH OF WHATEVER IT WAS ON
+        hoverState.update(game, null);
+    }
+    
+    /**
+     * Accessor method for the hover state, which keeps the hover
+     * latency metrics.
+     */
+    public HoverState getHoverState() {
+        return hoverState;
     }
     
     public void navigationMapSelection(RegioVincoGame game, int x, int y) throws InvalidXMLFileFormatException{
-        Color pixelColor = mapPixelReader.getColor(x, y);
-	String clickedSubRegion = colorToSubRegionMappings.get(pixelColor);
+	String clickedSubRegion = getSubRegionAt(x, y);
 	if ((clickedSubRegion == null)) {
 	    return;
 	}
-        colorToSubRegionMappings.clear();
         ((RegioVincoGame) game).reloadMap(clickedSubRegion, true);
         
         //System.out.println("selected");
@@ -290,37 +273,35 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
     public void respondToMapSelection(RegioVincoGame game, int x, int y){
         // THIS IS WHERE WE'LL CHECK TO SEE IF THE
 	// PLAYER CLICKED NO THE CORRECT SUBREGION
-	Color pixelColor = mapPixelReader.getColor(x, y);
-	String clickedSubRegion = colorToSubRegionMappings.get(pixelColor);
+	String clickedSubRegion = getSubRegionAt(x, y);
 	if ((clickedSubRegion == null) || (subRegionStack.isEmpty())) {
 	    return;
 	}
         correct = false;
         //leader mode
-        System.out.println(subRegionStack.get(0).getText().getText());
         if(game.gameMode.equals("LEADER")){
-            if(game.getLeader(clickedSubRegion).equals(subRegionStack.get(0).getText().getText())){
+            if(game.getLeader(clickedSubRegion).equals(subRegionStack.getBottom().getText().getText())){
                 correct = true;
             }
         }
         //flag mode
         if(game.gameMode.equals("FLAG")){
-//            if(game.getFlagPath(clickedSubRegion).equals(game.getFlagPath(subRegionStack.get(0).getText().getText()))){
+//            if(game.getFlagPath(clickedSubRegion).equals(game.getFlagPath(subRegionStack.getBottom().getText().getText()))){
 //                correct = true;
 //            }
-            if(clickedSubRegion.equals(subRegionStack.get(0).getRegion())){
+            if(clickedSubRegion.equals(subRegionStack.getBottom().getRegion())){
                 correct = true;
             }
         }
         //capital mode
         if(game.gameMode.equals("CAPITAL")){
-            if(game.getCapital(clickedSubRegion).equals(subRegionStack.get(0).getText().getText())){
+            if(game.getCapital(clickedSubRegion).equals(subRegionStack.getBottom().getText().getText())){
                 correct = true;
             }
         }
         //name mode
         if(game.gameMode.equals("NAME")){
-            if (clickedSubRegion.equals(subRegionStack.get(0).getText().getText())) {
+            if (clickedSubRegion.equals(subRegionStack.getBottom().getText().getText())) {
                 correct = true;
             }
         }
@@ -340,11 +321,7 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
             
             // REMOVE THE BOTTOM ELEMENT FROM THE STACK
             //peak to find first and then remove it
-            Pane gameLayer = ((RegioVincoGame)game).getGameLayer();
-            MovableText firstLabel = subRegionStack.peekFirst();
-            
-            gameLayer.getChildren().remove(firstLabel.getLabel());
-            subRegionStack.removeFirst();
+            subRegionStack.removeBottom();
                 
                // game.updateGUI();
             
@@ -367,8 +344,6 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
                 finishTime = System.currentTimeMillis();
                 timePassed = finishTime - startTime;
 		this.endGameAsWin();
-                game.gameWon = true;
-                game.winScreen.setVisible(true);
                 //game.writeHighScoreFile();
 		game.getAudio().stop(TRACKED_SONG);
 		//game.getAudio().play(AFGHAN_ANTHEM, false);
@@ -442,22 +417,28 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
 
     public void startTextStackMovingDown() {
 	// AND START THE REST MOVING DOWN
-	for (MovableText mT : subRegionStack) {
-	    mT.setVelocityY(SUB_STACK_VELOCITY);
-	}
+	subRegionStack.startMovingDown(SUB_STACK_VELOCITY);
     }
 
     public void changeSubRegionColorOnMap(RegioVincoGame game, String subRegion, Color color) {
-        // THIS IS WHERE WE'LL CHECK TO SEE IF THE
-	// PLAYER CLICKED NO THE CORRECT SUBREGION
-	ArrayList<int[]> subRegionPixels = pixels.get(subRegion);
-	for (int[] pixel : subRegionPixels) {
-	    mapPixelWriter.setColor(pixel[0], pixel[1], color);
+        // THE INDEX ALREADY KNOWS EVERY RUN OF PIXELS
+	// THAT BELONGS TO THIS SUBREGION
+	int ordinal = regionIndex.getOrdinal(subRegion);
+	if (ordinal == RegionIndex.NO_REGION) {
+	    return;
 	}
+	mapRecolorer.recolorRegion(regionIndex, ordinal, color);
+    }
+
+    public void changeBordersColorOnMap(Color color) {
+	mapRecolorer.recolorBorders(regionIndex, color);
     }
 
     public int getNumberOfSubRegions() {
-	return colorToSubRegionMappings.keySet().size();
+	if (regionIndex == null) {
+	    return 0;
+	}
+	return regionIndex.getNumRegions();
     }
 
     /**
@@ -467,6 +448,7 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
      */
     @Override
     public void reset(PointAndClickGame game) {
+        currentGame = (RegioVincoGame)game;
         //need to clear the labels on the bottom of the screen
         Pane guiLayer = ((RegioVincoGame)game).getGuiLayer();
         //guiLayer.getChildren().remove(4, guiLayer.getChildren().size());
@@ -480,6 +462,7 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
 	//subRegionToColorMappings.clear();
 	subRegionStack.clear();
 	redSubRegions.clear();
+        highlightedOrdinal = RegionIndex.NO_REGION;
         
         regionsFoundNum = 0;
         incorrectGuessesNum = 0;
@@ -505,21 +488,14 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
         }
 	PixelReader pixelReader = tempMapImage.getPixelReader();
 	WritableImage mapImage = new WritableImage(pixelReader, (int) tempMapImage.getWidth(), (int) tempMapImage.getHeight());
-	PixelWriter pixelWriter = mapImage.getPixelWriter();
-        Color borderOrange = Color.rgb(220, 110, 0);
-        for(int i = 0; i < mapImage.getWidth(); i++){
-            for(int j = 0; j < mapImage.getHeight(); j++){
-                if(pixelReader.getColor(i, j).equals(borderOrange)){
-                    	pixelWriter.setColor(i, j, Color.BLACK);
-                }
-                
-            }
-            
-        }
         ImageView mapView = ((RegioVincoGame)game).getGUIImages().get(MAP_TYPE);
 	mapView.setImage(mapImage);
         
         setMapImage(mapImage);
+        
+        // THE MAP WAS INDEXED WHEN IT WAS LOADED, SO WE
+        // ONLY NEED TO BLACKEN ITS BORDER SPANS
+        changeBordersColorOnMap(Color.BLACK);
        
         
         
@@ -542,97 +518,34 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
         
         //((RegioVincoGame) game).getGUIImages().get(MAP_TYPE).setVisible(true);
         
-	for (Color c : colorToSubRegionMappings.keySet()) {
-	    String subRegion = colorToSubRegionMappings.get(c);
+	// THE STACK IS JUST THE ORDINALS OF THE SUB REGIONS THAT HAVE
+	// SOMETHING TO SHOW IN THIS MODE, LABELS ARE ONLY MADE FOR
+	// THE ONES ON SCREEN
+	int[] stackOrdinals = new int[getNumberOfSubRegions()];
+	int stackSize = 0;
+	for (int ordinal = 0; ordinal < getNumberOfSubRegions(); ordinal++) {
+	    String subRegion = regionIndex.getRegionName(ordinal);
+	    int rgb = regionIndex.getRegionColor(ordinal);
+	    Color c = makeColor((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
             subRegionToColorMappings.put(subRegion, c);
-            System.out.println(((RegioVincoGame)game).gameMode);
-            Text textNode;
-            ImageView flagView = new ImageView();
-            Label textLabel = new Label();
-            if(((RegioVincoGame)game).gameMode.equals("CAPITAL")){
-                if(((RegioVincoGame)game).getCapital(subRegion) != null){
-                    textNode = new Text(((RegioVincoGame)game).getCapital(subRegion));
-                }
-                else{
+            if(((RegioVincoGame)game).gameMode.equals("FLAG")){
+                if(!((RegioVincoGame)game).hasFlag(subRegion)){
                     continue;
                 }
             }
-            else if(((RegioVincoGame)game).gameMode.equals("LEADER")){
-                if(((RegioVincoGame)game).getLeader(subRegion) != null){
-                    textNode = new Text(((RegioVincoGame)game).getLeader(subRegion));
-                }
-                else{
-                    continue;
-                }
+            else if(getStackText((RegioVincoGame)game, subRegion) == null){
+                continue;
             }
-            else if(((RegioVincoGame)game).gameMode.equals("FLAG")){
-                if(((RegioVincoGame)game).getFlag(subRegion) != null){
-                    textNode = new Text();
-                    //flagView = new ImageView();
-                    flagView.setImage(((RegioVincoGame)game).getFlag(subRegion));
-                    textLabel.setGraphic(flagView);
-                }
-                else{
-                    continue;
-                }
-            }
-            else{
-                textNode = new Text(subRegion);
-            }
-            if(!(((RegioVincoGame)game).gameMode.equals("FLAG"))){
-                
-                    textLabel.setGraphic(textNode);
-                
-            }
-	    //gameLayer.getChildren().add(textLabel);
-            MovableText subRegionText;
-            if(!(((RegioVincoGame)game).gameMode.equals("FLAG"))){
-                subRegionText = new MovableText(textNode, textLabel, subRegion);
-            }
-            else {
-                subRegionText = new MovableText(textNode, textLabel, subRegion, ((RegioVincoGame)game).getFlag(subRegion));
-            }
-            textLabel.setPrefSize(300, 50);
-	    subRegionText.getText().setFill(Color.BLUE);
-            subRegionText.getText().setFont(Font.font("Serif", 20));
-            textLabel.setStyle("-fx-background-color: rgb(" + c.getRed()*255  +", " + c.getGreen()* 255 + ", " + c.getBlue() * 255 + ")" );
-	    //textNode.setX(STACK_X);
-            gameLayer.getChildren().add(textLabel);
-            textLabel.setLayoutX(STACK_X);
-            //textLabel.setLayoutY(STACK_INIT_Y);
-            //find a way to add boxes to text
-	    subRegionStack.add(subRegionText);
-            
+	    stackOrdinals[stackSize++] = ordinal;
 	}
-	Collections.shuffle(subRegionStack);
-        regionsLeftNum = subRegionStack.size();
+	shuffle(stackOrdinals, stackSize);
+        regionsLeftNum = stackSize;
         if(!(((RegioVincoGame)game).gameMode.equals("FLAG"))){
-            int y = STACK_INIT_Y - 10;
-            int yInc = STACK_INIT_Y_INC;
-            //int tY = 0;
-            // NOW FIX THEIR Y LOCATIONS
-            for (MovableText mT : subRegionStack) {
-                int tY = y +yInc;
-                //y - yInc;
-                mT.getLabel().setLayoutY(tY);
-                yInc -= 50;
-            }
+            subRegionStack.reset(gameLayer, stackOrdinals, stackSize, STACK_INIT_Y - 10 + STACK_INIT_Y_INC, 50);
         }
         else{
-            int y = STACK_INIT_Y - 80;
-            //int yInc = STACK_INIT_Y_INC - 40;
-            int yInc = STACK_INIT_Y_INC;
-            for (MovableText mT : subRegionStack) {
-                int tY = y + yInc;
-                //y - yInc;
-                mT.getLabel().setLayoutY(tY);
-                //yInc -= 50;
-                //yInc -= mT.getImage().getHeight();
-                yInc -= 140;
-                //System.out.println(mT.getImage().getHeight()+  "   Image Height");
-            }
-        }
-        
+            subRegionStack.reset(gameLayer, stackOrdinals, stackSize, STACK_INIT_Y - 80 + STACK_INIT_Y_INC, 140);
+        }        
 
 //        try {
 //            // RELOAD THE MAP
@@ -673,6 +586,10 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
         regionsLeftLabel = new Label("00");
         incorrectGuesses = new Label("Incorrect Guesses: ");
         incorrectGuessesLabel = new Label("00");
+        timeBinding = new HUDBinding(time, seconds -> getSecondsAsTimeText(seconds));
+        regionsFoundBinding = new HUDBinding(regionsFoundLabel);
+        regionsLeftBinding = new HUDBinding(regionsLeftLabel);
+        incorrectGuessesBinding = new HUDBinding(incorrectGuessesLabel);
         
         //gameLayer.getChildren().add(time);
         
@@ -740,6 +657,27 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
 	beginGame();
     }
    
+    /**
+     * Ends the game as a win and has the game show its win screen, which
+     * happens once per game rather than being checked for every frame.
+     */
+    @Override
+    public void endGameAsWin() {
+        super.endGameAsWin();
+        if (currentGame != null) {
+            currentGame.showWinScreen(this);
+        }
+    }
+    
+    /**
+     * Puts the model back to before a game was started, for when the
+     * player stops a game part way through.
+     */
+    public void notStarted() {
+        stopGame();
+        redSubRegions.clear();
+    }
+   
     // HELPER METHOD FOR MAKING A COLOR OBJECT
     public static Color makeColor(int r, int g, int b) {
 	return Color.color(r/255.0, g/255.0, b/255.0);
@@ -751,53 +689,99 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
 	// updateDebugText
     
     /**
-     * Called each frame, this thread already has a lock on the data. This
-     * method updates all the game sprites as needed.
+     * Called each step on the JavaFX thread, after the commands queued for
+     * this frame have already been run. This method updates all the game
+     * sprites as needed.
      *
      * @param game the game in progress
      */
     @Override
     public void updateAll(PointAndClickGame game, double percentage) {
-        time.setText(this.getSecondsAsTimeText((System.currentTimeMillis() - startTime) / 1000));
+        // THESE ONLY CHANGE THEIR LABELS WHEN THE SECOND OR A COUNT CHANGES
+        timeBinding.set((System.currentTimeMillis() - startTime) / 1000);
         scoreTime = scoreTime++;
-        incorrectGuessesLabel.setText("" + incorrectGuessesNum);
-        regionsFoundLabel.setText("" + regionsFoundNum);
-        regionsLeftLabel.setText("" + regionsLeftNum);
-	for (MovableText mT : subRegionStack) {
-	    mT.update(percentage);
-	}
+        incorrectGuessesBinding.set(incorrectGuessesNum);
+        regionsFoundBinding.set(regionsFoundNum);
+        regionsLeftBinding.set(regionsLeftNum);
+	// ONLY THE LABELS ON SCREEN ARE MOVED
+	subRegionStack.update(percentage);
 	if (!subRegionStack.isEmpty()) {
-	    MovableText bottomOfStack = subRegionStack.get(0);
-            bottomOfStack.getLabel().setStyle("-fx-background-color: rgb(" + 0  +", " + 255 + ", " + 0 + ")" );
-            //double height = bottomOfStack.getImage().getHeight();
-            //bottomOfStack.getText().setFill(Color.color(255.0 , 51.0, 0.0));
-            bottomOfStack.getText().setFill(Color.color(255/255.0, 51/255.0, 0/255.0));
-	    double bottomY = bottomOfStack.getLabel().getLayoutY() + bottomOfStack.getLabel().getTranslateY();//fix stopping animation layout plus translation
+	    MovableText bottomOfStack = subRegionStack.getBottom();
+            // ONLY RESTYLED WHEN A NEW SUB REGION REACHES THE BOTTOM
+            if (subRegionStack.getBottomOrdinal() != highlightedOrdinal) {
+                HUDBinding.setStyleClass(bottomOfStack.getLabel(), STACK_BOTTOM_STYLE_CLASS, true);
+                bottomOfStack.getText().setFill(STACK_BOTTOM_TEXT_COLOR);
+                highlightedOrdinal = subRegionStack.getBottomOrdinal();
+            }
 	    if(((RegioVincoGame)game).gameMode.equals("FLAG")){
-                //bottomY = GAME_HEIGHT - height;
                 double height = bottomOfStack.getImage().getHeight();
-                if (bottomY >= (GAME_HEIGHT - height)) {
-                    double diffY = bottomY - (GAME_HEIGHT - height);
-                    for (MovableText mT : subRegionStack) {
-                        mT.getLabel().setLayoutY(mT.getLabel().getLayoutY() - diffY);
-                        mT.setVelocityY(0);
-                        //mT.update(percentage);
-                    }
-                }
+                subRegionStack.stopAt(GAME_HEIGHT - height);
             }
             else{
-                if (bottomY >= FIRST_REGION_Y_IN_STACK) {
-                    double diffY = bottomY - FIRST_REGION_Y_IN_STACK;
-                    for (MovableText mT : subRegionStack) {
-                        mT.getLabel().setLayoutY(mT.getLabel().getLayoutY() - diffY);
-                        mT.setVelocityY(0);
-                        //mT.update(percentage);
-                    }
-                }
+                subRegionStack.stopAt(FIRST_REGION_Y_IN_STACK);
             }
 	}
     }
 
+    /**
+     * Called each frame between steps, this method draws the sub region stack
+     * part of the way to where it will be after the next step.
+     *
+     * @param game the game in progress
+     */
+    @Override
+    public void interpolate(PointAndClickGame game, double alpha) {
+	subRegionStack.interpolate(alpha);
+    }
+
+    // HELPER METHOD FOR GETTING WHAT A SUB REGION'S STACK LABEL SAYS IN
+    // THE CURRENT MODE, WHICH IS null IF THERE'S NOTHING TO SAY
+    private String getStackText(RegioVincoGame game, String subRegion) {
+        if(game.gameMode.equals("CAPITAL")){
+            return game.getCapital(subRegion);
+        }
+        else if(game.gameMode.equals("LEADER")){
+            return game.getLeader(subRegion);
+        }
+        else if(game.gameMode.equals("FLAG")){
+            return "";
+        }
+        return subRegion;
+    }
+
+    // HELPER METHOD FOR FILLING IN A STACK LABEL FOR A SUB REGION, NOTE
+    // THAT THE LABEL MAY HAVE BEEN USED FOR ANOTHER ONE BEFORE
+    private void bindStackNode(MovableText node, int ordinal) {
+        String subRegion = regionIndex.getRegionName(ordinal);
+        Label label = node.getLabel();
+        node.setRegion(subRegion);
+        node.getText().setText(getStackText(currentGame, subRegion));
+        node.getText().setFill(Color.BLUE);
+        HUDBinding.setStyleClass(label, STACK_BOTTOM_STYLE_CLASS, false);
+        if(currentGame.gameMode.equals("FLAG")){
+            ImageView flagView = (label.getGraphic() instanceof ImageView) ? (ImageView) label.getGraphic() : new ImageView();
+            node.setImage(currentGame.getFlag(subRegion));
+            flagView.setImage(node.getImage());
+            label.setGraphic(flagView);
+        }
+        else{
+            node.setImage(null);
+            label.setGraphic(node.getText());
+        }
+        label.setBackground(new Background(new BackgroundFill(subRegionToColorMappings.get(subRegion), null, null)));
+    }
+
+    // HELPER METHOD FOR SHUFFLING THE FIRST count ORDINALS
+    private static void shuffle(int[] ordinals, int count) {
+        Random random = new Random();
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = ordinals[i];
+            ordinals[i] = ordinals[j];
+            ordinals[j] = temp;
+        }
+    }
+
     /**
      * Called each frame, this method specifies what debug text to render. Note
      * that this can help with debugging because rather than use a
@@ -809,5 +793,15 @@ public class RegioVincoDataModel extends PointAndClickGameDataModel {
      */
     public void updateDebugText(PointAndClickGame game) {
 	debugText.clear();
+	debugText.add("Hover Latency (us): " + (hoverState.getLastLatencyNanos() / 1000)
+		+ " avg " + (hoverState.getAverageLatencyNanos() / 1000)
+		+ " max " + (hoverState.getMaxLatencyNanos() / 1000));
+	ImageCache imageCache = ((RegioVincoGame) game).getImageCache();
+	debugText.add("Image Cache: " + imageCache.getHits() + " hits, "
+		+ imageCache.getMisses() + " misses, "
+		+ (imageCache.getCurrentBytes() / 1024) + " KB");
+	MapPrefetcher mapPrefetcher = ((RegioVincoGame) game).mapPrefetcher;
+	debugText.add("Map Prefetch: " + mapPrefetcher.getHits() + " hits, "
+		+ mapPrefetcher.getMisses() + " misses");
     }
 }
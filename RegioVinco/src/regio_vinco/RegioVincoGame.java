@@ -1,16 +1,13 @@
 package regio_vinco;
 
 import audio_manager.AudioManager;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Optional;
-import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.geometry.Insets;
@@ -89,12 +86,30 @@ public class RegioVincoGame extends PointAndClickGame {
     WorldDataManager wdm;
     XMLUtilities xml;
     
+    // THIS KNOWS WHICH SUB REGIONS HAVE THEIR OWN DATA
+    PlayableRegionResolver playableRegions = new PlayableRegionResolver();
+    
+    // THIS KEEPS THE HIGH SCORES OF ALL THE REGIONS IN MEMORY, AND
+    // WRITES NEW ONES TO ITS JOURNAL IN THE BACKGROUND
+    ScoreStore scores = new ScoreStore(new File(SCORES_JOURNAL_PATH), new File(DATA_PATH));
+    
+    // ALL THE IMAGES WE LOAD ARE DECODED ONCE AND KEPT HERE. NOTE THAT
+    // IT'S MADE THE FIRST TIME IT'S NEEDED SINCE THE GUI IMAGES ARE LOADED
+    // BY THE FRAMEWORK'S CONSTRUCTOR, BEFORE OUR FIELDS ARE INITIALIZED
+    ImageCache imageCache;
+    
+    // MAPS ARE LOADED IN THE BACKGROUND BY THIS, WHILE THIS SHOWS IT'S WORKING
+    MapLoader mapLoader;
+    ProgressIndicator loadingIndicator;
+    
+    // THIS LOADS THE MAPS OF HOVERED SUB REGIONS BEFORE THEY'RE CLICKED
+    MapPrefetcher mapPrefetcher;
+    
     ImageView flag;
     Label flagLabel;
     
-    FileWriter fw;
-    BufferedWriter bw;
-    Scanner sc;
+    // THE MAP BEING SHOWN, WHOSE SUB REGIONS ARE BEING PLAYED
+    LoadedMap currentMap;
     
     String currentRegion;
     String continentRegion;
@@ -112,6 +127,8 @@ public class RegioVincoGame extends PointAndClickGame {
     public RegioVincoGame(Stage initWindow, WorldDataManager world) {
 	super(initWindow, APP_TITLE, TARGET_FRAME_RATE);
         wdm = world;
+        mapLoader = new MapLoader(getImageCache(), playableRegions, this::enqueueCommand);
+        mapPrefetcher = new MapPrefetcher(mapLoader);
 	initAudio();
     }
     
@@ -136,22 +153,36 @@ public class RegioVincoGame extends PointAndClickGame {
     }
     
     public String getCapital(String region){
-       return getWorldDataManager().getRegion(region).getCapital();
+       return currentMap.getSubRegion(region).getCapital();
     }
     
     public String getLeader(String region){
-       return getWorldDataManager().getRegion(region).getLeader();
+       return currentMap.getSubRegion(region).getLeader();
+    }
+    
+    /**
+     * Accessor method for the directory the current region's directory
+     * is in, ending with a slash like path, which is where the score
+     * store looks for the current region.
+     */
+    public String getParentPath(){
+        String dir = path.substring(0, path.length() - 1);
+        return dir.substring(0, dir.lastIndexOf('/') + 1);
     }
     
     public String getFlagPath(String region){
-        String flagPath = path + region + "/" + region + " flag.png";
+        String flagPath = path + region + "/" + region + FLAG_FILE_PATH;
         //return loadImage(flagPath);
         return flagPath;
     }
     
     public Image getFlag(String region){
-         String flagPath = path + region + "/" + region + " flag.png";
-         return loadImage(flagPath);
+         return loadImage(getFlagPath(region));
+    }
+    
+    public boolean hasFlag(String region){
+        // THE RESOLVER ALREADY KNOWS EVERY FILE, SO THIS NEVER GOES TO DISK
+        return playableRegions.hasFile(getFlagPath(region));
     }
     
     
@@ -266,6 +297,9 @@ public class RegioVincoGame extends PointAndClickGame {
      */
     @Override
     public void initGUIControls() {
+	// THE STYLE CLASSES THE GAME USES ARE ALL IN ONE SHEET
+	stackPane.getStylesheets().add(RegioVincoGame.class.getResource(STYLE_SHEET).toExternalForm());
+
 	// LOAD THE GUI IMAGES, WHICH INCLUDES THE BUTTONS
 	// THESE WILL BE ON SCREEN AT ALL TIMES
 	backgroundLayer = new Pane();
@@ -311,6 +345,21 @@ public class RegioVincoGame extends PointAndClickGame {
         subReg = new Label();
         incGuess = new Label();
         
+        // THE WIN LABELS NEVER MOVE OR CHANGE STYLE, ONLY THEIR TEXT
+        // CHANGES FROM GAME TO GAME, SO THEY'RE LAID OUT ONCE HERE
+        congrats.setText("Congratulations!");
+        congrats.setFont(Font.font("Serif", FontWeight.BOLD, 40));
+        congrats.setTextFill(Color.CRIMSON);
+        congrats.setLayoutX(50);
+        congrats.setLayoutY(80);
+        Label[] statLabels = {region, score, gameDur, subReg, incGuess};
+        for (int i = 0; i < statLabels.length; i++) {
+            statLabels[i].setFont(Font.font("Serif", FontWeight.BOLD, 26));
+            statLabels[i].setTextFill(Color.DARKBLUE);
+            statLabels[i].setLayoutX(50);
+            statLabels[i].setLayoutY(175 + (i * 30));
+        }
+        
         winScreen.getChildren().add(congrats);
         winScreen.getChildren().add(region);
         winScreen.getChildren().add(score);
@@ -470,6 +519,13 @@ public class RegioVincoGame extends PointAndClickGame {
         navigation.getChildren().add(flagLabel);
         navigation.getChildren().add(flag);
         
+        loadingIndicator = new ProgressIndicator();
+        loadingIndicator.setLayoutX(LOADING_X);
+        loadingIndicator.setLayoutY(LOADING_Y);
+        loadingIndicator.setPrefSize(100, 100);
+        loadingIndicator.setVisible(false);
+        navigation.getChildren().add(loadingIndicator);
+        
         
         flagLabel.setVisible(false);
         countryLabel.setVisible(false);
@@ -571,12 +627,14 @@ public class RegioVincoGame extends PointAndClickGame {
     // HELPER METHOD FOR LOADING IMAGES
     //Was private now public
     public Image loadImage(String imagePath) {	
-        File file = new File(imagePath);
-        if(!file.exists()){
-            return null;
+        return getImageCache().getImage(imagePath);
+    }
+    
+    public ImageCache getImageCache() {
+        if (imageCache == null) {
+            imageCache = new ImageCache(IMAGE_CACHE_MAX_BYTES);
         }
-	Image img = new Image("file:" + imagePath);
-	return img;
+        return imageCache;
     }
     
     /**
@@ -597,13 +655,18 @@ public class RegioVincoGame extends PointAndClickGame {
 //	});
         
         Button enterButton = guiButtons.get(ENTER_TYPE);
+        // NOTE THAT ANYTHING THAT CHANGES THE GAME DATA IS QUEUED AND DONE
+        // AT THE START OF THE NEXT FRAME, BUT THINGS THAT ONLY CHANGE WHICH
+        // SCREEN IS SHOWN, OR OPEN A DIALOG, ARE DONE RIGHT AWAY
         enterButton.setOnAction(e-> {
-           controller.processEnterGameRequest();
-            try {
-                reloadMap("The World", true);
-            } catch (InvalidXMLFileFormatException ex) {
-                Logger.getLogger(RegioVincoGame.class.getName()).log(Level.SEVERE, null, ex);
-            }
+            enqueueCommand(() -> {
+                controller.processEnterGameRequest();
+                try {
+                    reloadMap("The World", true);
+                } catch (InvalidXMLFileFormatException ex) {
+                    Logger.getLogger(RegioVincoGame.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            });
         });
         
         Button helpButton = guiButtons.get(HELP_TYPE);
@@ -643,7 +706,7 @@ public class RegioVincoGame extends PointAndClickGame {
             guiButtons.get(FLAG_MODE_TYPE).setDisable(true);
             guiButtons.get(LEADER_MODE_TYPE).setDisable(true);
             guiButtons.get(NAME_MODE_TYPE).setDisable(true);
-            controller.processNameModeRequest();
+            enqueueCommand(() -> controller.processNameModeRequest());
         });
         
         Button capitalModeButton = guiButtons.get(CAPITAL_MODE_TYPE);
@@ -652,7 +715,7 @@ public class RegioVincoGame extends PointAndClickGame {
             guiButtons.get(FLAG_MODE_TYPE).setDisable(true);
             guiButtons.get(LEADER_MODE_TYPE).setDisable(true);
             guiButtons.get(NAME_MODE_TYPE).setDisable(true);
-            controller.processCapitalModeRequest();
+            enqueueCommand(() -> controller.processCapitalModeRequest());
         });
         
         Button flagModeButton = guiButtons.get(FLAG_MODE_TYPE);
@@ -661,7 +724,7 @@ public class RegioVincoGame extends PointAndClickGame {
             guiButtons.get(FLAG_MODE_TYPE).setDisable(true);
             guiButtons.get(LEADER_MODE_TYPE).setDisable(true);
             guiButtons.get(NAME_MODE_TYPE).setDisable(true);
-            controller.processFlagModeRequest();
+            enqueueCommand(() -> controller.processFlagModeRequest());
         });
         
         Button leaderModeButton = guiButtons.get(LEADER_MODE_TYPE);
@@ -670,7 +733,7 @@ public class RegioVincoGame extends PointAndClickGame {
             guiButtons.get(FLAG_MODE_TYPE).setDisable(true);
             guiButtons.get(LEADER_MODE_TYPE).setDisable(true);
             guiButtons.get(NAME_MODE_TYPE).setDisable(true);
-            controller.processLeaderModeRequest();
+            enqueueCommand(() -> controller.processLeaderModeRequest());
         });
         
         Button stopButton = guiButtons.get(STOP_TYPE);
@@ -708,46 +771,70 @@ public class RegioVincoGame extends PointAndClickGame {
 	// SETUP MOUSE PRESSES ON THE MAP
 	ImageView mapView = guiImages.get(MAP_TYPE);
 	mapView.setOnMouseClicked(e -> {
-            try {
-                controller.processMapClickRequest((int) e.getX(), (int) e.getY());
-            } catch (InvalidXMLFileFormatException ex) {
-                System.out.println("Error");
-            }
+            int x = (int) e.getX();
+            int y = (int) e.getY();
+            enqueueCommand(() -> {
+                try {
+                    controller.processMapClickRequest(x, y);
+                } catch (InvalidXMLFileFormatException ex) {
+                    System.out.println("Error");
+                }
+            });
 	});
         
+        // ONLY WHERE THE MOUSE ENDS UP EACH FRAME MATTERS
         mapView.setOnMouseMoved(e -> {
-            if(!(gameOn)){
-                controller.processMouseMoved((int) e.getX(), (int) e.getY());
-            }
+            int x = (int) e.getX();
+            int y = (int) e.getY();
+            enqueueMouseMove(() -> {
+                if(!(gameOn)){
+                    controller.processMouseMoved(x, y);
+                }
+            });
+        });
+        
+        // LEAVING THE MAP IS LIKE MOVING OFF EVERY SUB REGION
+        mapView.setOnMouseExited(e -> {
+            enqueueMouseMove(() -> {
+                if(!(gameOn)){
+                    controller.processMouseExited();
+                }
+            });
         });
 	
         worldLabel.setOnMouseClicked(e -> {
-            try {
-                continentRegion = null;
-                controller.processWorldLabel();
-                continentLabel.setVisible(false);
-                countryLabel.setVisible(false);
-            } catch (InvalidXMLFileFormatException ex) {
-                System.out.println("Error");
-            }
+            enqueueCommand(() -> {
+                try {
+                    continentRegion = null;
+                    controller.processWorldLabel();
+                    continentLabel.setVisible(false);
+                    countryLabel.setVisible(false);
+                } catch (InvalidXMLFileFormatException ex) {
+                    System.out.println("Error");
+                }
+            });
         });
         
         continentLabel.setOnMouseClicked(e -> {
-            try {
-                continentRegion = null;
-                controller.processContinentLabel();
-                countryLabel.setVisible(false);
-            } catch (InvalidXMLFileFormatException ex) {
-                System.out.println("Error");
-            }
+            enqueueCommand(() -> {
+                try {
+                    continentRegion = null;
+                    controller.processContinentLabel();
+                    countryLabel.setVisible(false);
+                } catch (InvalidXMLFileFormatException ex) {
+                    System.out.println("Error");
+                }
+            });
         });
         
         countryLabel.setOnMouseClicked(e -> {
-            try {
-                controller.processCountryLabel();
-            } catch (InvalidXMLFileFormatException ex) {
-                System.out.println("Error");
-            }
+            enqueueCommand(() -> {
+                try {
+                    controller.processCountryLabel();
+                } catch (InvalidXMLFileFormatException ex) {
+                    System.out.println("Error");
+                }
+            });
         });
         
         
@@ -844,218 +931,138 @@ public class RegioVincoGame extends PointAndClickGame {
 
     @Override
     public void updateGUI() {
-	// IF THE GAME IS OVER, DISPLAY THE APPROPRIATE RESPONSE
-	if (gameWon) {
-//            congrats = new Label();
-//            region = new Label();
-//            score = new Label();
-//            gameDur = new Label();
-//            subReg = new Label();
-//            incGuess = new Label();
-            
-            RegioVincoDataModel model = new RegioVincoDataModel();
-            //model.finishTime = model.time.getText();
-            //clear layers
-            //gameLayer.getChildren().clear();
-            //gameLayer.setVisible(false);
-            getGUIImages().get(MAP_TYPE).setVisible(false);
-            guiLayer.getChildren().remove(3, guiLayer.getChildren().size());
-            
-            
-            
-            
-            //create 
-	    //ImageView winImage = guiImages.get(WIN_DISPLAY_TYPE);
-            //guiLayer.getChildren().add(winImage);
-	    //winImage.setVisible(true);
-            winScreen.setVisible(true);
-            winScreen.toFront();
-            
-            //winning stat labels
-            //WIN
-      
-            congrats.setText("Congratulations!");
-            congrats.setFont(Font.font("Serif", FontWeight.BOLD, 40));
-            congrats.setTextFill(Color.CRIMSON);
-            congrats.setLayoutX(50);
-            congrats.setLayoutY(80);
-            //winScreen.getChildren().add(congrats);
-            
-            region.setText("Region: " + currentRegion);
-            region.setFont(Font.font("Serif", FontWeight.BOLD, 26));
-            region.setTextFill(Color.DARKBLUE);
-//            region.setLayoutX(380);
-//            region.setLayoutY(300);
-            region.setLayoutX(50);
-            region.setLayoutY(175);
-            //winScreen.getChildren().add(region);
-            
-            //calculate score
-            int scoreNum = model.getScore();
-            //scoreNum is greater than zero
-           
-            score.setText("Score: " + model.getScore());
-            score.setFont(Font.font("Serif", FontWeight.BOLD, 26));
-            score.setTextFill(Color.DARKBLUE);
-//            score.setLayoutX(380);
-//            score.setLayoutY(345);
-            score.setLayoutX(50);
-            score.setLayoutY(205);
-            //winScreen.getChildren().add(score);
-            
-            //fix duation time
-            
-            gameDur.setText("Game Duration: " + model.getGameDuration());
-            gameDur.setFont(Font.font("Serif", FontWeight.BOLD, 26));
-            gameDur.setTextFill(Color.DARKBLUE);
-//            gameDur.setLayoutX(380);
-//            gameDur.setLayoutY(390);
-            gameDur.setLayoutX(50);
-            gameDur.setLayoutY(235);
-            //winScreen.getChildren().add(gameDur);
-            
-            
-            subReg.setText("Sub Regions: " + model.getSubRegionAmount());
-            subReg.setFont(Font.font("Serif", FontWeight.BOLD, 26));
-            subReg.setTextFill(Color.DARKBLUE);
-//            subReg.setLayoutX(380);
-//            subReg.setLayoutY(435);
-            subReg.setLayoutX(50);
-            subReg.setLayoutY(265);
-            //winScreen.getChildren().add(subReg);
-            
-            
-            incGuess.setText("Incorrect Guesses: " + model.getIncorrectGuess());
-            incGuess.setFont(Font.font("Serif", FontWeight.BOLD, 26));
-            incGuess.setTextFill(Color.DARKBLUE);
-//            incGuess.setLayoutX(380);
-//            incGuess.setLayoutY(480);
-            incGuess.setLayoutX(50);
-            incGuess.setLayoutY(295);
-            //winScreen.getChildren().add(incGuess);
-            
-            File scoreFile;
-            
-            scoreFile = new File(path + currentRegion + " Scores.txt");
-            
-            try {
-                sc = new Scanner(scoreFile);
-            } catch (FileNotFoundException ex) {
-                System.out.println("File Not Found Exception");
-            }
-            
-            if(model.getScore() > Integer.parseInt(sc.next())){
-            
-                try {
-                    scoreFile.createNewFile();
-                    fw = new FileWriter(scoreFile.getAbsoluteFile());
-                    bw = new BufferedWriter(fw);
-                
-                    bw.write(model.getScore() + " "+  model.getGameDuration() + " " + model.getIncorrectGuess());
-                
-                    bw.close();
-                } catch (IOException ex) {
-                    System.out.println("IO Exception");
-                }
-            }
-	}
+	// THE WIN SCREEN IS SHOWN ONCE BY showWinScreen WHEN THE GAME IS
+	// WON, SO THERE'S NOTHING LEFT TO DO HERE EACH FRAME
     }
 
+    /**
+     * Called once by the data model when the player wins, this hides the
+     * map, shows the win screen with the results of the game, and records
+     * the score.
+     *
+     * @param model the data model of the game that was just won
+     */
+    public void showWinScreen(RegioVincoDataModel model) {
+        gameWon = true;
+        getGUIImages().get(MAP_TYPE).setVisible(false);
+        guiLayer.getChildren().remove(3, guiLayer.getChildren().size());
+        
+        int scoreNum = model.getScore();
+        String duration = model.getGameDuration();
+        int guesses = model.getIncorrectGuess();
+        region.setText("Region: " + currentRegion);
+        score.setText("Score: " + scoreNum);
+        gameDur.setText("Game Duration: " + duration);
+        subReg.setText("Sub Regions: " + model.getSubRegionAmount());
+        incGuess.setText("Incorrect Guesses: " + guesses);
+        winScreen.setVisible(true);
+        winScreen.toFront();
+        
+        // EVERY FINISHED GAME IS RECORDED, EXACTLY ONCE
+        scores.record(getParentPath(), currentRegion, gameMode, scoreNum, duration, "" + guesses);
+    }
+
+    /**
+     * Starts loading a region's map in the background, it will be shown
+     * once it's ready unless another map is asked for in the meantime.
+     *
+     * @param regionMap The region whose map is to be shown.
+     *
+     * @param firstTime No longer matters, the world only reads a region's
+     * data the first time it's needed.
+     */
     public void reloadMap(String regionMap , boolean firstTime) throws InvalidXMLFileFormatException {
-        File score;
+        String mapPath = getMapPath(regionMap);
+        
+        // WE MAY ALREADY HAVE IT, USUALLY BECAUSE IT WAS PREFETCHED
+        // WHILE THE USER WAS HOVERING OVER IT, OR IT MAY BE PREFETCHING
+        // RIGHT NOW, IN WHICH CASE THE LOAD WAITS FOR IT
+        Future<LoadedMap> prefetch = mapPrefetcher.takeHover(regionMap, mapPath);
+        LoadedMap cachedMap = mapPrefetcher.getMap(regionMap, mapPath);
+        if(cachedMap != null){
+            mapLoader.cancel();
+            showMap(cachedMap);
+            return;
+        }
         
+        loadingIndicator.setVisible(true);
+        loadingIndicator.toFront();
+        mapLoader.load(regionMap, mapPath, wdm, prefetch, loadedMap -> showMap(loadedMap));
+    }
+    
+    /**
+     * Accessor method for the directory with a region's files.
+     */
+    public String getMapPath(String regionMap) {
+        if(regionMap.equals("The World")){
+            return DATA_PATH + "The World/";
+        }
+        else if(continentRegion == null){
+            return DATA_PATH + "The World/" + regionMap + "/";
+        }
+        else{
+            return DATA_PATH + "The World/" + continentRegion + "/" + regionMap + "/";
+        }
+    }
+    
+    // HELPER METHOD FOR SHOWING A MAP THE LOADER HAS FINISHED,
+    // THIS IS ALWAYS CALLED ON THE JAVAFX THREAD
+    private void showMap(LoadedMap loadedMap) {
+        loadingIndicator.setVisible(false);
+        
+        // NOTHING CHANGES IF THE MAP COULDN'T BE LOADED OR
+        // A GAME WAS STARTED WHILE IT WAS LOADING
+        if((loadedMap == null) || gameOn){
+            return;
+        }
+        String regionMap = loadedMap.getRegionMap();
+        mapPrefetcher.addMap(loadedMap);
         
         highScoreBottom.setVisible(true);
         
         currentRegion = regionMap;
-        //String path;
-        
-        ((RegioVincoDataModel) data).getColorToSubRegionMappings().clear();
-        //((RegioVincoDataModel) data).get
+        path = loadedMap.getPath();
+        currentMap = loadedMap;
         
         if(regionMap.equals("The World")){
-            path = DATA_PATH + "The World/";
             guiButtons.get(CAPITAL_MODE_TYPE).setDisable(true);
             guiButtons.get(FLAG_MODE_TYPE).setDisable(true);
             guiButtons.get(LEADER_MODE_TYPE).setDisable(true);
             guiButtons.get(NAME_MODE_TYPE).setDisable(false);
         }
         else if(continentRegion == null){
-            path = DATA_PATH + "The World/" + regionMap + "/";
             guiButtons.get(CAPITAL_MODE_TYPE).setDisable(false);
             guiButtons.get(FLAG_MODE_TYPE).setDisable(false);
             guiButtons.get(LEADER_MODE_TYPE).setDisable(false);
             guiButtons.get(NAME_MODE_TYPE).setDisable(false);
         }
         else{
-            System.out.println(continentRegion);
-            path = DATA_PATH + "The World/" + continentRegion + "/" + regionMap + "/";
             guiButtons.get(CAPITAL_MODE_TYPE).setDisable(false);
             guiButtons.get(FLAG_MODE_TYPE).setDisable(true);
             guiButtons.get(LEADER_MODE_TYPE).setDisable(true);
             guiButtons.get(NAME_MODE_TYPE).setDisable(false);
         }
         
-        score = new File(path + currentRegion + " Scores.txt");
-        
-        if(!(score.exists())){
-            try {
-                score.createNewFile();
-                fw = new FileWriter(score.getAbsoluteFile());
-                bw = new BufferedWriter(fw);
-                
-                bw.write("0 0 0");
-                
-                bw.close();
-            } catch (IOException ex) {
-                System.out.println("IO Exception");
-            }
+        // REGIONS THAT HAVE NEVER BEEN PLAYED HAVE NO SCORES
+        ScoreStore.ScoreSummary summary = scores.getSummary(getParentPath(), currentRegion);
+        if(summary == null){
+            summary = ScoreStore.EMPTY_SUMMARY;
         }
         
-	Image tempMapImage = loadImage(path + regionMap + MAPS_FILE_PATH);
-        if(tempMapImage == null){
-            //System.out.println("Temp map image is null \n " + path + regionMap + MAPS_FILE_PATH);
-            return;
-        }
-	PixelReader pixelReader = tempMapImage.getPixelReader();
-	WritableImage mapImage = new WritableImage(pixelReader, (int) tempMapImage.getWidth(), (int) tempMapImage.getHeight());
-	PixelWriter pixelWriter = mapImage.getPixelWriter();
-        Color borderOrange = Color.rgb(220, 110, 0);
-        for(int i = 0; i < mapImage.getWidth(); i++){
-            for(int j = 0; j < mapImage.getHeight(); j++){
-                if(pixelReader.getColor(i, j).equals(borderOrange)){
-                    	pixelWriter.setColor(i, j, Color.BLACK);
-                }
-                
-            }
-            
-        }
+        // THE GAME DRAWS ON ITS OWN COPY OF THE MAP
+	Image tempMapImage = loadedMap.getMapImage();
+	int mapWidth = (int) tempMapImage.getWidth();
+	int mapHeight = (int) tempMapImage.getHeight();
+	WritableImage mapImage = new WritableImage(tempMapImage.getPixelReader(), mapWidth, mapHeight);
         ImageView mapView = guiImages.get(MAP_TYPE);
 	mapView.setImage(mapImage);
        
-        //mapView.setVisible(true);
 	int numSubRegions = ((RegioVincoDataModel) data).getRegionsFound() + ((RegioVincoDataModel) data).getRegionsNotFound();
 	this.boundaryTop = -(numSubRegions * 50);
 
 	// AND GIVE THE WRITABLE MAP TO THE DATA MODEL
 	((RegioVincoDataModel) data).setMapImage(mapImage);
         
-        
-        
-        
-        Region firstRegion;
-        File file = new File(path + regionMap + XML_FILE_PATH);
-        //File file = new File(XML_PATH + "The World data.xml");
-        if(file.exists()){
-            System.out.println("Exists");
-        }
-            
-        //System.out.println(XML_PATH + regionMap + XML_FILE_PATH);
-        //xml.loadXMLDocument(XML_PATH + regionMap + XML_FILE_PATH, XML_PATH + "RegionData.xsd");
-        //Document doc = xml.loadXMLDocument(XML_PATH + regionMap + XML_FILE_PATH, XML_PATH + "RegionData.xsd");
-        if(firstTime){
-            wdm.load(file);
-        }
         nameLabel.setText(regionMap);
         
         if(regionMap.equals("Africa") || regionMap.equals("Antarctica") || regionMap.equals("Asia") || regionMap.equals("Europe") || regionMap.equals("North America") || regionMap.equals("South America") || regionMap.equals("Oceania")){
@@ -1071,55 +1078,24 @@ public class RegioVincoGame extends PointAndClickGame {
             countryLabel.setVisible(true);
         }
         
-        ((RegioVincoDataModel) data).setPixelMap(new HashMap());
-        //Node firstRegionNode = doc.getElementsByTagName("region").item(0);
-        //ArrayList<Node> regionList = xml.getChildNodesWithName(firstRegionNode, "sub_region");
-        Iterator<String> iterator = wdm.getAllRegions().keySet().iterator();
-        
-        while(iterator.hasNext()){
-            String subRegionName = (String)iterator.next();
-            Region region = wdm.getRegion(subRegionName);
-            firstRegion = region;
-            ((RegioVincoDataModel) data).getColorToSubRegionMappings().put(makeColor(region.getRed(), region.getGreen(), region.getBlue()), subRegionName);
-            
-            ((RegioVincoDataModel) data).getPixelMap().put(subRegionName, new ArrayList());
-        }
-//        for(Node node : regionList){
-//            Region region = new Region();
-//        }
-//        
-        for(int i = 0; i < mapImage.getWidth(); i++){
-            for(int j = 0; j < mapImage.getHeight(); j++){
-                Color c = pixelReader.getColor(i, j);
-                if(((RegioVincoDataModel) data).getColorToSubRegionMappings().containsKey(c)){
-                    String subRegion = (String)((RegioVincoDataModel) data).getColorToSubRegionMappings().get(c);
-                    ArrayList<int[]> subRegionPixels = (ArrayList<int[]>)((RegioVincoDataModel) data).getPixelMap().get(subRegion);
-                    int[] pixel = new int[2];
-                    pixel[0] = i;
-                    pixel[1] = j;
-                    subRegionPixels.add(pixel);
-                    
-                    File file2 = new File(path + subRegion + "/"+ subRegion + XML_FILE_PATH);
-                    
-                    if(!(file2.exists())){
-                        pixelWriter.setColor(i, j, Color.PINK);
-                    
-                    }
-                }
-            }
-        
-            try {
-                sc = new Scanner(score);
-                highScoreBottom.setText("High Score: " + sc.next() );
-                bestTimeBottom.setText("Best Time: " + sc.next());
-                leastGuessesBottom.setText("Least Incorrect Guesses: " + sc.next());
-                
-            } catch (FileNotFoundException ex) {
-                System.out.println("IO Exception");
+        RegionIndex regionIndex = loadedMap.getRegionIndex();
+        ((RegioVincoDataModel) data).setRegionIndex(regionIndex);
+        ((RegioVincoDataModel) data).changeBordersColorOnMap(Color.BLACK);
+        
+        // SUB REGIONS WITHOUT THEIR OWN DATA CAN'T BE PLAYED, SO TURN
+        // THEM PINK ONE SPAN AT A TIME
+        Set<String> playableSubRegions = loadedMap.getPlayableSubRegions();
+        for (int i = 0; i < regionIndex.getNumRegions(); i++) {
+            String subRegion = regionIndex.getRegionName(i);
+            if (regionIndex.isOnMap(i) && !playableSubRegions.contains(subRegion)) {
+                ((RegioVincoDataModel) data).changeSubRegionColorOnMap(this, subRegion, Color.PINK);
             }
-            
         }
         
+        highScoreBottom.setText("High Score: " + summary.getHighScore());
+        bestTimeBottom.setText("Best Time: " + summary.getBestTime());
+        leastGuessesBottom.setText("Least Incorrect Guesses: " + summary.getLeastGuesses());
+        
 //        Iterator<String> iteratorC = wdm.getAllRegions().keySet().iterator();
 //        
 //        while(iteratorC.hasNext()){
@@ -0,0 +1,130 @@
+package regio_vinco;
+
+import java.util.Arrays;
+
+/**
+ * This class maps packed 24-bit RGB colors to region ordinals. It is an
+ * open-addressing hash table over plain int arrays, so looking up the
+ * region under a pixel never boxes a Color or an Integer, and colors are
+ * compared exactly as ints rather than as doubles.
+ *
+ * @author McKillaGorilla
+ */
+public class RegionColorTable {
+    // MARKS AN UNUSED SLOT, NO 24-BIT COLOR CAN EVER BE NEGATIVE
+    private static final int EMPTY = -1;
+
+    // RETURNED FOR COLORS THAT DON'T BELONG TO ANY REGION
+    public static final int NO_REGION = RegionIndex.NO_REGION;
+
+    // THE COLORS AND THEIR ORDINALS, SLOT BY SLOT
+    private int[] colors;
+    private int[] ordinals;
+
+    // ALWAYS ONE LESS THAN THE NUMBER OF SLOTS, WHICH IS A POWER OF 2
+    private int mask;
+
+    // HOW MANY COLORS ARE IN THE TABLE
+    private int size;
+
+    /**
+     * Constructor for a table that will hold expectedSize colors without
+     * ever being more than half full.
+     */
+    public RegionColorTable(int expectedSize) {
+        int capacity = 4;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        colors = new int[capacity];
+        ordinals = new int[capacity];
+        Arrays.fill(colors, EMPTY);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    /**
+     * Constructor for a table mapping each packed RGB color to its
+     * position in the array.
+     */
+    public RegionColorTable(int[] regionColors) {
+        this(regionColors.length);
+        for (int i = 0; i < regionColors.length; i++) {
+            put(regionColors[i], i);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Maps a color to a region ordinal, replacing any previous mapping.
+     *
+     * @param rgb The packed RGB color, any alpha bits are ignored.
+     *
+     * @param ordinal The region ordinal for that color.
+     */
+    public void put(int rgb, int ordinal) {
+        rgb &= RegionIndex.RGB_MASK;
+        if ((size + 1) * 2 > colors.length) {
+            grow();
+        }
+        int slot = findSlot(rgb);
+        if (colors[slot] == EMPTY) {
+            colors[slot] = rgb;
+            size++;
+        }
+        ordinals[slot] = ordinal;
+    }
+
+    /**
+     * Accessor method for the region ordinal of a color.
+     *
+     * @param rgb The packed RGB color, so a pixel's ARGB value may be
+     * provided directly since the alpha bits are ignored.
+     *
+     * @return The ordinal mapped to the color, or NO_REGION if none is.
+     */
+    public int get(int rgb) {
+        int slot = findSlot(rgb & RegionIndex.RGB_MASK);
+        if (colors[slot] == EMPTY) {
+            return NO_REGION;
+        }
+        return ordinals[slot];
+    }
+
+    // HELPER METHOD FOR FINDING EITHER THE SLOT HOLDING rgb OR THE
+    // EMPTY SLOT WHERE IT WOULD GO, USING LINEAR PROBING
+    private int findSlot(int rgb) {
+        int slot = hash(rgb) & mask;
+        while ((colors[slot] != EMPTY) && (colors[slot] != rgb)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // HELPER METHOD FOR SPREADING OUT SIMILAR COLORS, LIKE THE SHADES OF
+    // GREY OUR MAPS USE, WHICH WOULD OTHERWISE CLUSTER TOGETHER
+    private static int hash(int rgb) {
+        int h = rgb * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // HELPER METHOD FOR DOUBLING THE NUMBER OF SLOTS
+    private void grow() {
+        int[] oldColors = colors;
+        int[] oldOrdinals = ordinals;
+        colors = new int[oldColors.length * 2];
+        ordinals = new int[oldOrdinals.length * 2];
+        Arrays.fill(colors, EMPTY);
+        mask = colors.length - 1;
+        for (int i = 0; i < oldColors.length; i++) {
+            if (oldColors[i] != EMPTY) {
+                int slot = findSlot(oldColors[i]);
+                colors[slot] = oldColors[i];
+                ordinals[slot] = oldOrdinals[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package regio_vinco;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritablePixelFormat;
+
+/**
+ * This class stores a precomputed lookup of which sub-region owns each
+ * pixel of a map. It is built once when a map is loaded and keeps a label
+ * raster of region ordinals as well as a run-length list of horizontal
+ * spans for each region, so regions can be found and recolored without
+ * ever rescanning the map image.
+ *
+ * @author McKillaGorilla
+ */
+public class RegionIndex {
+    // LABEL USED FOR PIXELS THAT DON'T BELONG TO ANY SUB-REGION
+    public static final short NO_REGION = -1;
+
+    // EACH SPAN IS STORED AS 3 INTS: ROW, FIRST COLUMN, AND LENGTH
+    public static final int SPAN_SIZE = 3;
+
+    // THE ORANGE USED TO DRAW BORDERS IN ALL OUR MAP IMAGES
+    public static final int BORDER_RGB = (220 << 16) | (110 << 8);
+
+    // MASK FOR DROPPING THE ALPHA CHANNEL FROM AN ARGB PIXEL
+    public static final int RGB_MASK = 0xFFFFFF;
+
+    // THE DIMENSIONS OF THE INDEXED MAP
+    private int width;
+    private int height;
+
+    // ONE REGION ORDINAL PER PIXEL, STORED ROW BY ROW
+    private short[] labels;
+
+    // THE NAME AND PACKED RGB COLOR OF EACH REGION, BY ORDINAL
+    private String[] regionNames;
+    private int[] regionColors;
+    private HashMap<String, Integer> nameToOrdinal;
+    private RegionColorTable colorTable;
+
+    // THE HORIZONTAL SPANS OF EACH REGION AND HOW MANY INTS ARE USED
+    private int[][] spans;
+    private int[] spanLengths;
+
+    // THE BOUNDING BOX OF EACH REGION
+    private int[] minX;
+    private int[] minY;
+    private int[] maxX;
+    private int[] maxY;
+
+    // THE SPANS OF ALL THE BORDER PIXELS
+    private int[] borderSpans;
+    private int borderSpansLength;
+
+    /**
+     * Constructor for an empty index, rows are added via indexRow and
+     * the index must then be finished before it is used.
+     *
+     * @param initWidth Width of the map in pixels.
+     *
+     * @param initHeight Height of the map in pixels.
+     *
+     * @param initRegionNames The names of all the sub-regions, the
+     * position of each name is that region's ordinal.
+     *
+     * @param initRegionColors The packed RGB color of each sub-region.
+     */
+    public RegionIndex(int initWidth, int initHeight, String[] initRegionNames, int[] initRegionColors) {
+        width = initWidth;
+        height = initHeight;
+        regionNames = initRegionNames;
+        regionColors = initRegionColors;
+
+        labels = new short[width * height];
+        Arrays.fill(labels, NO_REGION);
+
+        int numRegions = regionNames.length;
+        nameToOrdinal = new HashMap<>();
+        colorTable = new RegionColorTable(regionColors);
+        spans = new int[numRegions][];
+        spanLengths = new int[numRegions];
+        minX = new int[numRegions];
+        minY = new int[numRegions];
+        maxX = new int[numRegions];
+        maxY = new int[numRegions];
+        for (int i = 0; i < numRegions; i++) {
+            nameToOrdinal.put(regionNames[i], i);
+            spans[i] = new int[SPAN_SIZE * 16];
+            minX[i] = Integer.MAX_VALUE;
+            minY[i] = Integer.MAX_VALUE;
+            maxX[i] = -1;
+            maxY[i] = -1;
+        }
+        borderSpans = new int[SPAN_SIZE * 64];
+    }
+
+    /**
+     * Constructor for an index that has already been built, for example
+     * one that was precompiled and loaded from a MapIndexFile.
+     */
+    RegionIndex(int initWidth, int initHeight, String[] initRegionNames, int[] initRegionColors,
+            short[] initLabels, int[][] initSpans, int[][] initBounds, int[] initBorderSpans) {
+        width = initWidth;
+        height = initHeight;
+        regionNames = initRegionNames;
+        regionColors = initRegionColors;
+        labels = initLabels;
+        spans = initSpans;
+        borderSpans = initBorderSpans;
+        borderSpansLength = borderSpans.length;
+
+        int numRegions = regionNames.length;
+        nameToOrdinal = new HashMap<>();
+        colorTable = new RegionColorTable(regionColors);
+        spanLengths = new int[numRegions];
+        minX = new int[numRegions];
+        minY = new int[numRegions];
+        maxX = new int[numRegions];
+        maxY = new int[numRegions];
+        for (int i = 0; i < numRegions; i++) {
+            nameToOrdinal.put(regionNames[i], i);
+            spanLengths[i] = spans[i].length;
+            minX[i] = initBounds[i][0];
+            minY[i] = initBounds[i][1];
+            maxX[i] = initBounds[i][2];
+            maxY[i] = initBounds[i][3];
+        }
+    }
+
+    /**
+     * Builds the complete index for a map by reading it one row at a time.
+     *
+     * @param reader Reader for the map image to index.
+     *
+     * @param width Width of the map in pixels.
+     *
+     * @param height Height of the map in pixels.
+     *
+     * @param regionNames The names of all the sub-regions by ordinal.
+     *
+     * @param regionColors The packed RGB colors of all the sub-regions.
+     *
+     * @return The finished index.
+     */
+    public static RegionIndex build(PixelReader reader, int width, int height, String[] regionNames, int[] regionColors) {
+        RegionIndex index = new RegionIndex(width, height, regionNames, regionColors);
+        WritablePixelFormat<IntBuffer> format = PixelFormat.getIntArgbInstance();
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            reader.getPixels(0, y, width, 1, format, row, 0, width);
+            index.indexRow(y, row);
+        }
+        index.finish();
+        return index;
+    }
+
+    /**
+     * Labels one row of the map and records the runs of each region
+     * found in it.
+     *
+     * @param y The row being indexed.
+     *
+     * @param argbRow The ARGB pixels of that row.
+     */
+    public void indexRow(int y, int[] argbRow) {
+        int rowStart = y * width;
+        int x = 0;
+        while (x < width) {
+            // FIND THE END OF THIS RUN OF IDENTICAL COLORS
+            int rgb = argbRow[x] & RGB_MASK;
+            int runStart = x;
+            while ((x < width) && ((argbRow[x] & RGB_MASK) == rgb)) {
+                x++;
+            }
+            int runLength = x - runStart;
+
+            if (rgb == BORDER_RGB) {
+                borderSpans = addSpan(borderSpans, borderSpansLength, y, runStart, runLength);
+                borderSpansLength += SPAN_SIZE;
+                continue;
+            }
+            int r = colorTable.get(rgb);
+            if (r == NO_REGION) {
+                continue;
+            }
+
+            // LABEL THE PIXELS AND RECORD THE SPAN
+            Arrays.fill(labels, rowStart + runStart, rowStart + x, (short) r);
+            spans[r] = addSpan(spans[r], spanLengths[r], y, runStart, runLength);
+            spanLengths[r] += SPAN_SIZE;
+
+            // AND GROW THE REGION'S BOUNDING BOX
+            if (runStart < minX[r]) minX[r] = runStart;
+            if (x - 1 > maxX[r]) maxX[r] = x - 1;
+            if (y < minY[r]) minY[r] = y;
+            if (y > maxY[r]) maxY[r] = y;
+        }
+    }
+
+    /**
+     * Trims all the span lists to their used lengths, this should be
+     * called once after all the rows have been indexed.
+     */
+    public void finish() {
+        for (int i = 0; i < spans.length; i++) {
+            spans[i] = Arrays.copyOf(spans[i], spanLengths[i]);
+        }
+        borderSpans = Arrays.copyOf(borderSpans, borderSpansLength);
+    }
+
+    // HELPER METHOD FOR APPENDING A SPAN, GROWING THE ARRAY IF NEEDED
+    private static int[] addSpan(int[] spanList, int length, int y, int x, int runLength) {
+        if (length + SPAN_SIZE > spanList.length) {
+            spanList = Arrays.copyOf(spanList, spanList.length * 2);
+        }
+        spanList[length] = y;
+        spanList[length + 1] = x;
+        spanList[length + 2] = runLength;
+        return spanList;
+    }
+
+    // ACCESSOR METHODS
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getNumRegions() {
+        return regionNames.length;
+    }
+
+    public String getRegionName(int ordinal) {
+        return regionNames[ordinal];
+    }
+
+    public int getRegionColor(int ordinal) {
+        return regionColors[ordinal];
+    }
+
+    /**
+     * Accessor method for the table that maps each region's packed RGB
+     * color to its ordinal, used to find the region under a map pixel.
+     */
+    public RegionColorTable getColorTable() {
+        return colorTable;
+    }
+
+    /**
+     * Accessor method for getting the ordinal of a region.
+     *
+     * @param regionName The name of the region to look for.
+     *
+     * @return The region's ordinal, or NO_REGION if it isn't in this map.
+     */
+    public int getOrdinal(String regionName) {
+        Integer ordinal = nameToOrdinal.get(regionName);
+        if (ordinal == null) {
+            return NO_REGION;
+        }
+        return ordinal;
+    }
+
+    /**
+     * Accessor method for getting the ordinal of the region at a pixel.
+     *
+     * @return The ordinal of the region that owns the (x, y) pixel, or
+     * NO_REGION if no region does.
+     */
+    public int getOrdinalAt(int x, int y) {
+        if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+            return NO_REGION;
+        }
+        return labels[(y * width) + x];
+    }
+
+    /**
+     * Accessor method for a region's spans, note that the returned array
+     * stores SPAN_SIZE ints per span and must not be changed.
+     */
+    public int[] getSpans(int ordinal) {
+        return spans[ordinal];
+    }
+
+    public int[] getBorderSpans() {
+        return borderSpans;
+    }
+
+    public int getMinX(int ordinal) {
+        return minX[ordinal];
+    }
+
+    public int getMinY(int ordinal) {
+        return minY[ordinal];
+    }
+
+    public int getMaxX(int ordinal) {
+        return maxX[ordinal];
+    }
+
+    public int getMaxY(int ordinal) {
+        return maxY[ordinal];
+    }
+
+    /**
+     * Accessor method for the raw label raster, note that it is stored
+     * row by row and must not be changed.
+     */
+    short[] getLabels() {
+        return labels;
+    }
+
+    /**
+     * Tests whether this index was built for exactly the provided regions
+     * and colors, which is how we detect a stale precompiled index.
+     */
+    public boolean matches(String[] testNames, int[] testColors) {
+        if (testNames.length != regionNames.length) {
+            return false;
+        }
+        for (int i = 0; i < testNames.length; i++) {
+            Integer ordinal = nameToOrdinal.get(testNames[i]);
+            if ((ordinal == null) || ((regionColors[ordinal] & RGB_MASK) != (testColors[i] & RGB_MASK))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests whether a region has any pixels at all in this map.
+     */
+    public boolean isOnMap(int ordinal) {
+        return spans[ordinal].length > 0;
+    }
+}
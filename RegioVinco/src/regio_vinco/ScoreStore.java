@@ -0,0 +1,513 @@
+package regio_vinco;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import static regio_vinco.RegioVinco.*;
+
+/**
+ * This class keeps the high scores of all the regions. They're all loaded
+ * into memory when it's made, so looking one up never touches the disk,
+ * which means hovering over regions and navigating the map can't be held
+ * up by it.
+ *
+ * Each region has a Leaderboard of its best scores in each mode. These
+ * are kept sorted by mode and then by the region's path, so all the
+ * regions under one region are next to each other, which lets questions
+ * like the best score anywhere in Asia be answered by looking at just
+ * those regions.
+ *
+ * Scores are kept on disk in a single append-only journal, with one line
+ * per game that made a leaderboard. New lines are written in batches on
+ * a worker thread and synced before the batch is done, and each line
+ * carries a checksum so a line cut short by a crash is simply skipped
+ * when the journal is read. A cut short last line is also cut off the
+ * journal before anything else is written to it, so the next batch
+ * starts on a line of its own. Once the journal has many more lines than
+ * there are scores on the leaderboards it's compacted, by writing just
+ * those scores to a new file that then atomically replaces the journal.
+ *
+ * The first time there's no journal, the old "<Region> Scores.txt" files
+ * are imported into a new one.
+ *
+ * @author McKillaGorilla
+ */
+public class ScoreStore {
+    // HOW MANY SCORES EACH REGION KEEPS FOR EACH MODE
+    public static final int LEADERBOARD_SIZE = 10;
+
+    // HOW LONG RECORDED SCORES WAIT TO BE WRITTEN, SO THAT SEVERAL
+    // MAY BE WRITTEN TOGETHER
+    public static final long FLUSH_DELAY_MILLIS = 500;
+
+    // THE JOURNAL IS COMPACTED ONCE IT HAS THIS MANY LINES MORE
+    // THAN THERE ARE SCORES ON THE LEADERBOARDS
+    public static final int COMPACT_THRESHOLD = 256;
+
+    // USED AS THE MODE OF SCORES IMPORTED FROM THE OLD FILES, WHICH
+    // DIDN'T SAY WHAT MODE THEY WERE FROM
+    public static final String UNKNOWN_MODE = "";
+
+    // SHOWN FOR REGIONS WITHOUT ANY SCORES
+    public static final ScoreSummary EMPTY_SUMMARY = new ScoreSummary(0, "0", "0");
+
+    // SEPARATES THE FIELDS OF A JOURNAL LINE AND THE PARTS OF A KEY
+    private static final char SEPARATOR = '\t';
+
+    // SEPARATES THE REGIONS IN A REGION KEY, AND THE CHARACTER RIGHT
+    // AFTER IT, WHICH ENDS THE RANGE OF KEYS UNDER A REGION
+    private static final char PATH_SEPARATOR = '/';
+    private static final char PATH_END = PATH_SEPARATOR + 1;
+
+    // THE FILE THE SCORES ARE KEPT IN
+    private File journalFile;
+
+    // THE BEST SCORES FOR EACH REGION IN EACH MODE, BY MODE AND REGION
+    // KEY, AND THE BEST SCORE FOR EACH REGION IN ANY MODE, BY REGION KEY.
+    // NOTE THAT ONCE THE STORE IS MADE THESE ARE ONLY CHANGED ON THE
+    // JAVAFX THREAD, WHILE SYNCHRONIZED ON pendingLines SO THE WRITER
+    // MAY READ THEM
+    private TreeMap<String, Leaderboard> leaderboards;
+    private TreeMap<String, ScoreSummary> summaries;
+
+    // ALL WRITING HAPPENS HERE, ONE BATCH AT A TIME
+    private ExecutorService writer;
+
+    // LINES WAITING TO BE WRITTEN, AND THE BATCH THAT WILL WRITE THEM.
+    // NOTE THAT THESE ARE ONLY USED WHILE SYNCHRONIZED ON pendingLines
+    private ArrayList<String> pendingLines;
+    private Future<?> pendingFlush;
+
+    // HOW MANY LINES THE JOURNAL HAS, WHICH IS ONLY USED ON THE WRITER
+    private int journalLines;
+
+    /**
+     * Constructor for a store kept in initJournalFile. If there is no such
+     * file yet, the old scores files under legacyDataDir are imported.
+     */
+    public ScoreStore(File initJournalFile, File legacyDataDir) {
+        journalFile = initJournalFile;
+        leaderboards = new TreeMap<>();
+        summaries = new TreeMap<>();
+        pendingLines = new ArrayList<>();
+        pendingFlush = null;
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread worker = new Thread(r, "Score Writer");
+            worker.setDaemon(true);
+            return worker;
+        });
+
+        if (journalFile.exists()) {
+            journalLines = readJournal();
+        } else {
+            journalLines = 0;
+            importLegacyScores(legacyDataDir, legacyDataDir);
+            writer.submit(() -> compactJournal(snapshotLines()));
+        }
+
+        // WHATEVER HASN'T BEEN WRITTEN WHEN THE GAME EXITS IS WRITTEN NOW
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(), "Score Store Shutdown"));
+    }
+
+    /**
+     * Accessor method for a region's best score in any mode.
+     *
+     * @param regionDir Path of the directory the region's directory is in,
+     * ending with a slash.
+     *
+     * @param region Name of the region.
+     *
+     * @return The region's summary, or null if it has no scores yet.
+     */
+    public ScoreSummary getSummary(String regionDir, String region) {
+        return summaries.get(makeRegionKey(regionDir, region));
+    }
+
+    /**
+     * Accessor method for a region's best score in one mode.
+     *
+     * @return The region's summary for the mode, or null if it has no
+     * scores in that mode yet.
+     */
+    public ScoreSummary getSummary(String regionDir, String region, String mode) {
+        Leaderboard leaderboard = leaderboards.get(makeModeKey(makeRegionKey(regionDir, region), mode));
+        return (leaderboard == null) ? null : leaderboard.getBest();
+    }
+
+    /**
+     * Accessor method for a region's leaderboard in one mode.
+     *
+     * @return Up to LEADERBOARD_SIZE scores, best first, which may not be
+     * changed.
+     */
+    public List<ScoreSummary> getTopScores(String regionDir, String region, String mode) {
+        Leaderboard leaderboard = leaderboards.get(makeModeKey(makeRegionKey(regionDir, region), mode));
+        return (leaderboard == null) ? Collections.<ScoreSummary>emptyList() : leaderboard.getTopScores();
+    }
+
+    /**
+     * Accessor method for the best score in any mode of all the regions
+     * under a region, like all the countries of Asia and their provinces.
+     * Note that the region's own scores aren't included.
+     *
+     * @param regionDir Path of the directory the region's directory is in,
+     * ending with a slash, like for getSummary. The regions under it are
+     * found by their keys starting with the region's own.
+     *
+     * @param region Name of the region.
+     *
+     * @return The best summary, or null if none of them have scores yet.
+     */
+    public ScoreSummary getBestUnder(String regionDir, String region) {
+        ScoreSummary best = null;
+        for (ScoreSummary summary : subRange(summaries, makeRegionKey(regionDir, region)).values()) {
+            if (summary.isBetterThan(best)) {
+                best = summary;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Accessor method for the best score in one mode of all the regions
+     * under a region.
+     *
+     * @return The best summary, or null if none of them have scores in
+     * that mode yet.
+     */
+    public ScoreSummary getBestUnder(String regionDir, String region, String mode) {
+        ScoreSummary best = null;
+        String modeKey = makeModeKey(makeRegionKey(regionDir, region), mode);
+        for (Leaderboard leaderboard : subRange(leaderboards, modeKey).values()) {
+            if (leaderboard.getBest().isBetterThan(best)) {
+                best = leaderboard.getBest();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Records a finished game. If it makes its leaderboard it's in memory
+     * right away, and is written to the journal shortly afterwards on
+     * another thread.
+     *
+     * @return true if it's the region's best score in any mode.
+     */
+    public boolean record(String regionDir, String region, String mode, int score, String time, String guesses) {
+        String regionKey = makeRegionKey(regionDir, region);
+        ScoreSummary summary = new ScoreSummary(score, time, guesses);
+        String scoreMode = (mode == null) ? UNKNOWN_MODE : mode;
+        boolean best;
+        synchronized (pendingLines) {
+            best = summary.isBetterThan(summaries.get(regionKey));
+            if (!apply(regionKey, scoreMode, summary)) {
+                return false;
+            }
+            pendingLines.add(makeLine(regionKey, scoreMode, summary));
+            if (pendingFlush == null) {
+                pendingFlush = writer.submit(() -> {
+                    try {
+                        Thread.sleep(FLUSH_DELAY_MILLIS);
+                    } catch (InterruptedException ex) {
+                        // WRITE WHAT WE HAVE NOW
+                    }
+                    writePending();
+                });
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Writes everything recorded so far, waiting until it's on disk.
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> writePending()).get(10, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+            Logger.getLogger(ScoreStore.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+
+    // HELPER METHOD FOR PUTTING A SCORE ON ITS LEADERBOARD, IT RETURNS
+    // true IF IT MADE IT, OTHERWISE THERE'S NO NEED TO KEEP IT
+    private boolean apply(String regionKey, String mode, ScoreSummary summary) {
+        String modeKey = makeModeKey(regionKey, mode);
+        Leaderboard leaderboard = leaderboards.get(modeKey);
+        if (leaderboard == null) {
+            leaderboard = new Leaderboard(LEADERBOARD_SIZE);
+            leaderboards.put(modeKey, leaderboard);
+        }
+        if (!leaderboard.offer(summary)) {
+            return false;
+        }
+        if (summary.isBetterThan(summaries.get(regionKey))) {
+            summaries.put(regionKey, summary);
+        }
+        return true;
+    }
+
+    // HELPER METHOD FOR GETTING THE PART OF map UNDER THE REGION WHOSE
+    // KEY IS key, WHICH ARE THE KEYS THAT START WITH key AND A SLASH
+    private static <V> SortedMap<String, V> subRange(TreeMap<String, V> map, String key) {
+        return map.subMap(key + PATH_SEPARATOR, key + PATH_END);
+    }
+
+    // HELPER METHOD FOR APPENDING THE PENDING LINES TO THE JOURNAL, WHICH
+    // IS ONLY EVER CALLED ON THE WRITER
+    private void writePending() {
+        ArrayList<String> lines;
+        synchronized (pendingLines) {
+            lines = new ArrayList<>(pendingLines);
+            pendingLines.clear();
+            pendingFlush = null;
+        }
+        if (lines.isEmpty()) {
+            return;
+        }
+        try (FileOutputStream out = new FileOutputStream(journalFile, true)) {
+            Writer journal = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                journal.write(line);
+            }
+            journal.flush();
+            out.getFD().sync();
+            journalLines += lines.size();
+        } catch (IOException ex) {
+            Logger.getLogger(ScoreStore.class.getName()).log(Level.SEVERE, null, ex);
+            return;
+        }
+
+        // IF THE JOURNAL IS MOSTLY SCORES THAT WERE PUSHED OFF THEIR
+        // LEADERBOARDS, START OVER WITH JUST THE ONES STILL ON THEM
+        ArrayList<String> bestLines = snapshotLines();
+        if (journalLines > bestLines.size() + COMPACT_THRESHOLD) {
+            compactJournal(bestLines);
+        }
+    }
+
+    // HELPER METHOD FOR GETTING THE LINES OF ALL THE SCORES ON THE
+    // LEADERBOARDS, WHICH IS WHAT A COMPACTED JOURNAL HOLDS
+    private ArrayList<String> snapshotLines() {
+        ArrayList<String> lines = new ArrayList<>();
+        synchronized (pendingLines) {
+            for (Map.Entry<String, Leaderboard> entry : leaderboards.entrySet()) {
+                String modeKey = entry.getKey();
+                int separator = modeKey.indexOf(SEPARATOR);
+                String mode = modeKey.substring(0, separator);
+                String regionKey = modeKey.substring(separator + 1);
+                for (ScoreSummary summary : entry.getValue().getTopScores()) {
+                    lines.add(makeLine(regionKey, mode, summary));
+                }
+            }
+        }
+        return lines;
+    }
+
+    // HELPER METHOD FOR REPLACING THE JOURNAL WITH ONE HOLDING ONLY lines,
+    // THE NEW ONE IS WRITTEN AND SYNCED BEFORE IT'S MOVED INTO PLACE
+    private void compactJournal(ArrayList<String> lines) {
+        File tempFile = new File(journalFile.getPath() + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(tempFile)) {
+                Writer journal = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                for (String line : lines) {
+                    journal.write(line);
+                }
+                journal.flush();
+                out.getFD().sync();
+            }
+            Files.move(tempFile.toPath(), journalFile.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            journalLines = lines.size();
+        } catch (IOException ex) {
+            Logger.getLogger(ScoreStore.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    // HELPER METHOD FOR READING THE JOURNAL INTO MEMORY, IT RETURNS HOW
+    // MANY LINES THERE WERE. NOTE THAT DAMAGED LINES ARE SKIPPED
+    private int readJournal() {
+        int numLines = 0;
+        try {
+            truncateTornLine();
+        } catch (IOException ex) {
+            Logger.getLogger(ScoreStore.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                numLines++;
+                String[] fields = parseLine(line);
+                if (fields != null) {
+                    apply(fields[4], fields[3],
+                            new ScoreSummary(Integer.parseInt(fields[0]), fields[1], fields[2]));
+                }
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(ScoreStore.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return numLines;
+    }
+
+    // HELPER METHOD FOR CUTTING OFF WHAT'S AFTER THE JOURNAL'S LAST NEWLINE,
+    // WHICH IS ONLY THERE IF A CRASH CUT A LINE SHORT. OTHERWISE THE NEXT
+    // BATCH WOULD BE APPENDED TO IT AND ITS FIRST LINE WOULD BE DAMAGED TOO
+    private void truncateTornLine() throws IOException {
+        try (RandomAccessFile journal = new RandomAccessFile(journalFile, "rw")) {
+            long length = journal.length();
+            long end = length;
+            while (end > 0) {
+                journal.seek(end - 1);
+                if (journal.read() == '\n') {
+                    break;
+                }
+                end--;
+            }
+            if (end < length) {
+                journal.setLength(end);
+                journal.getFD().sync();
+            }
+        }
+    }
+
+    // HELPER METHOD FOR IMPORTING THE OLD SCORES FILES IN dir AND ALL THE
+    // DIRECTORIES UNDER IT, NOTE THAT THE PLACEHOLDERS THE GAME USED TO
+    // MAKE FOR REGIONS WITHOUT SCORES ARE SKIPPED
+    private void importLegacyScores(File dataDir, File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                importLegacyScores(dataDir, file);
+            } else if (file.getName().equals(dir.getName() + SCORES_FILE_PATH)) {
+                try (Scanner sc = new Scanner(file)) {
+                    ScoreSummary summary = new ScoreSummary(Integer.parseInt(sc.next()), sc.next(), sc.next());
+                    if (summary.getHighScore() > 0) {
+                        String regionKey = dataDir.toPath().relativize(dir.toPath()).toString()
+                                .replace(File.separatorChar, '/');
+                        apply(regionKey, UNKNOWN_MODE, summary);
+                    }
+                } catch (IOException | NoSuchElementException | NumberFormatException ex) {
+                    // IT'S NOT A SCORE WE CAN USE
+                }
+            }
+        }
+    }
+
+    // HELPER METHOD FOR MAKING A REGION'S KEY, WHICH IS ITS PATH UNDER
+    // THE DATA DIRECTORY, LIKE The World/Europe/France. NOTE THAT THIS
+    // IS ALSO HOW THE OLD SCORES FILES ARE IMPORTED, AND THAT A REGION'S
+    // KEY STARTS WITH ITS PARENT'S KEY AND A SLASH, WHICH IS HOW THE
+    // REGIONS UNDER ONE REGION ARE FOUND
+    private static String makeRegionKey(String regionDir, String region) {
+        String key = regionDir + region;
+        if (key.startsWith(DATA_PATH)) {
+            key = key.substring(DATA_PATH.length());
+        }
+        return key;
+    }
+
+    // HELPER METHOD FOR MAKING THE KEY OF A REGION'S LEADERBOARD, WHICH
+    // STARTS WITH THE MODE SO THAT ALL THE REGIONS UNDER ONE REGION ARE
+    // TOGETHER WITHIN EACH MODE
+    private static String makeModeKey(String regionKey, String mode) {
+        return mode + SEPARATOR + regionKey;
+    }
+
+    // HELPER METHOD FOR MAKING A JOURNAL LINE, WHICH STARTS WITH THE
+    // CHECKSUM OF THE REST OF THE LINE
+    private static String makeLine(String regionKey, String mode, ScoreSummary summary) {
+        String fields = summary.getHighScore() + "" + SEPARATOR + summary.getBestTime() + SEPARATOR
+                + summary.getLeastGuesses() + SEPARATOR + mode + SEPARATOR + regionKey;
+        return checksum(fields) + SEPARATOR + fields + "\n";
+    }
+
+    // HELPER METHOD FOR SPLITTING A JOURNAL LINE INTO SCORE, TIME, GUESSES,
+    // MODE, AND REGION KEY, IT RETURNS null IF THE LINE IS DAMAGED
+    private static String[] parseLine(String line) {
+        int separator = line.indexOf(SEPARATOR);
+        if (separator < 0) {
+            return null;
+        }
+        String fields = line.substring(separator + 1);
+        if (!line.substring(0, separator).equals(checksum(fields))) {
+            return null;
+        }
+        String[] parts = fields.split("" + SEPARATOR, 5);
+        if (parts.length != 5) {
+            return null;
+        }
+        try {
+            Integer.parseInt(parts[0]);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        return parts;
+    }
+
+    private static String checksum(String fields) {
+        CRC32 crc = new CRC32();
+        crc.update(fields.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * The best results recorded for one region.
+     */
+    public static class ScoreSummary {
+        private final int highScore;
+        private final String bestTime;
+        private final String leastGuesses;
+
+        public ScoreSummary(int initHighScore, String initBestTime, String initLeastGuesses) {
+            highScore = initHighScore;
+            bestTime = initBestTime;
+            leastGuesses = initLeastGuesses;
+        }
+
+        public int getHighScore() {
+            return highScore;
+        }
+
+        public String getBestTime() {
+            return bestTime;
+        }
+
+        public String getLeastGuesses() {
+            return leastGuesses;
+        }
+
+        // A SCORE IS BETTER THAN NO SCORE AT ALL
+        private boolean isBetterThan(ScoreSummary summary) {
+            return (summary == null) || (highScore > summary.highScore);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package regio_vinco;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.function.ObjIntConsumer;
+import javafx.scene.Group;
+import javafx.scene.control.Label;
+import javafx.scene.layout.Pane;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * This class is the stack of sub regions the player has to find, drawn
+ * down the side of the game. The stack itself is just the ordinals of the
+ * sub regions in a queue, with the one to find at the bottom, so a stack
+ * of a few hundred sub regions costs a few hundred ints. Labels are only
+ * made for the sub regions that are actually on screen, the bottom few,
+ * and a label whose sub region has been found is put back in a pool and
+ * used again for the next sub region that comes on screen. That means
+ * the work done each frame depends on how many labels fit on the screen,
+ * not on how many sub regions there are.
+ *
+ * All the sub regions move together, so the stack keeps a single position
+ * and velocity for all of them, each one sitting a fixed spacing above the
+ * one below it. The labels are all in one Group, and moving the stack just
+ * moves the Group, so however many labels are on screen only one node is
+ * changed each frame, and since the labels themselves never move they're
+ * never laid out again.
+ *
+ * @author McKillaGorilla
+ */
+public class SubRegionStack {
+    // THE LAYER THE STACK IS DRAWN IN, AND WHERE
+    private Pane layer;
+    private double x;
+
+    // THE LABELS ON SCREEN ARE ALL IN HERE, WHICH IS WHAT MOVES
+    private Group group;
+
+    // FILLS IN A LABEL FOR A SUB REGION
+    private ObjIntConsumer<MovableText> binder;
+
+    // THE ORDINALS OF THE SUB REGIONS STILL TO FIND, FROM head FOR size
+    private int[] ordinals;
+    private int head;
+    private int size;
+
+    // WHERE THE BOTTOM SUB REGION IS LAID OUT AND HOW FAR APART THEY ARE
+    private double bottomY;
+    private double spacing;
+
+    // HOW FAR THE WHOLE STACK HAS MOVED, WHERE IT WAS BEFORE THE LAST
+    // STEP, AND HOW FAST IT'S MOVING
+    private double position;
+    private double lastPosition;
+    private double velocity;
+
+    // THE LABELS ON SCREEN, BOTTOM FIRST, AND THE ONES NOT IN USE
+    private ArrayDeque<MovableText> visible;
+    private ArrayDeque<MovableText> pool;
+
+    /**
+     * Constructor for an empty stack drawn at initX, whose labels are
+     * filled in by initBinder.
+     */
+    public SubRegionStack(double initX, ObjIntConsumer<MovableText> initBinder) {
+        layer = null;
+        x = initX;
+        binder = initBinder;
+        group = new Group();
+        ordinals = new int[0];
+        visible = new ArrayDeque<>();
+        pool = new ArrayDeque<>();
+        clear();
+    }
+
+    // ACCESSOR METHODS
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Accessor method for the ordinal of the sub region to find.
+     *
+     * @return The ordinal, or RegionIndex.NO_REGION if the stack is empty.
+     */
+    public int getBottomOrdinal() {
+        return (size == 0) ? RegionIndex.NO_REGION : ordinals[head];
+    }
+
+    /**
+     * Accessor method for the label of the sub region to find, which is
+     * always on screen.
+     *
+     * @return The label, or null if the stack is empty.
+     */
+    public MovableText getBottom() {
+        return visible.peekFirst();
+    }
+
+    /**
+     * Accessor method for the labels currently on screen.
+     *
+     * @return The labels, bottom first.
+     */
+    public Iterator<MovableText> getVisible() {
+        return visible.iterator();
+    }
+
+    public int getNumVisible() {
+        return visible.size();
+    }
+
+    // MUTATOR METHODS
+
+    /**
+     * Starts a new stack, putting all the labels in use back in the pool.
+     *
+     * @param initLayer The layer to draw the labels in.
+     *
+     * @param initOrdinals The sub regions, bottom first.
+     *
+     * @param count How many of initOrdinals to use.
+     *
+     * @param initBottomY Where the bottom sub region starts.
+     *
+     * @param initSpacing How far apart the sub regions are.
+     */
+    public void reset(Pane initLayer, int[] initOrdinals, int count, double initBottomY, double initSpacing) {
+        clear();
+        if ((layer != initLayer) && (layer != null)) {
+            layer.getChildren().remove(group);
+        }
+        layer = initLayer;
+        if (!layer.getChildren().contains(group)) {
+            layer.getChildren().add(group);
+        }
+        ordinals = initOrdinals;
+        size = count;
+        bottomY = initBottomY;
+        spacing = initSpacing;
+        fill();
+        place(position);
+    }
+
+    /**
+     * Empties the stack, putting all the labels in use back in the pool.
+     */
+    public void clear() {
+        while (!visible.isEmpty()) {
+            release(visible.pollFirst());
+        }
+        head = 0;
+        size = 0;
+        position = 0;
+        lastPosition = 0;
+        velocity = 0;
+    }
+
+    /**
+     * Takes the bottom sub region off the stack. Note that the rest of the
+     * stack stays where it is until it's started moving down.
+     *
+     * @return The ordinal of the sub region that was taken off.
+     */
+    public int removeBottom() {
+        int ordinal = ordinals[head];
+        head++;
+        size--;
+        bottomY -= spacing;
+        if (!visible.isEmpty()) {
+            release(visible.pollFirst());
+        }
+        fill();
+        place(position);
+        return ordinal;
+    }
+
+    public void startMovingDown(double initVelocity) {
+        velocity = initVelocity;
+    }
+
+    /**
+     * Called each step, this moves the whole stack down and brings on
+     * screen whatever sub regions have moved onto it.
+     *
+     * @param percentage How much of a frame the step is.
+     */
+    public void update(double percentage) {
+        lastPosition = position;
+        position += velocity * percentage;
+        fill();
+        place(position);
+    }
+
+    /**
+     * Called each frame between steps, this draws the stack alpha of the
+     * way from where it was before the last step to where it is now.
+     */
+    public void interpolate(double alpha) {
+        place(lastPosition + ((position - lastPosition) * alpha));
+    }
+
+    /**
+     * Stops the stack if its bottom has reached stopY, moving it back up
+     * to exactly there if it went past.
+     */
+    public void stopAt(double stopY) {
+        double bottom = bottomY + position;
+        if ((size > 0) && (bottom >= stopY)) {
+            double diffY = bottom - stopY;
+            position -= diffY;
+            lastPosition -= diffY;
+            velocity = 0;
+            place(position);
+        }
+    }
+
+    // HELPER METHOD FOR BRINGING ON SCREEN EVERY SUB REGION THAT'S AT
+    // LEAST PARTLY ON IT, AND ALWAYS THE BOTTOM ONE
+    private void fill() {
+        while (visible.size() < size) {
+            double layoutY = bottomY - (visible.size() * spacing);
+            if (!visible.isEmpty() && (layoutY + position + spacing <= 0)) {
+                return;
+            }
+            MovableText node = pool.isEmpty() ? makeNode() : pool.pop();
+            binder.accept(node, ordinals[head + visible.size()]);
+            node.getLabel().setLayoutX(x);
+            node.getLabel().setLayoutY(layoutY);
+            group.getChildren().add(node.getLabel());
+            visible.addLast(node);
+        }
+    }
+
+    // HELPER METHOD FOR MOVING ALL THE LABELS ON SCREEN AT ONCE
+    private void place(double y) {
+        group.setTranslateY(y);
+    }
+
+    private void release(MovableText node) {
+        group.getChildren().remove(node.getLabel());
+        pool.push(node);
+    }
+
+    private MovableText makeNode() {
+        Text text = new Text();
+        text.setFont(Font.font("Serif", 20));
+        Label label = new Label();
+        label.setPrefSize(300, 50);
+        return new MovableText(text, label, null);
+    }
+}
@@ -1,7 +1,8 @@
 package pacg;
 
 import java.util.TreeMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.image.Image;
@@ -19,9 +20,11 @@ import javafx.stage.Stage;
  * framework for making a point and click JavaFX game. This class serves as 
  * the focal point of that game, with access to all the important game data and 
  * controls. Note that it uses a custom JavaFX AnimationTimer to provide 
- * regular updates of the game data and rendering, so it also uses a 
- * ReentrantLock to make sure another thread doesn't try to change
- * data mid-render.
+ * regular updates of the game data and rendering, so anything that changes
+ * the game data, like an event handler or a background thread that has
+ * finished loading something, should do so by putting a command on the
+ * game's queue. The queued commands are all run at the start of the next
+ * frame, before the game data is updated, so they never happen mid-update.
  *
  * @author Richard McKenna
  * @version 1.0
@@ -35,15 +38,15 @@ public abstract class PointAndClickGame {
     // BE CUSTOMIZED FOR THE GIVEN GAME
     protected PointAndClickGameDataModel data;
 
-    // THERE WILL BE 2 THREADS AT WORK IN THIS APPLICATION,
-    // THE MAIN GUI THREAD, WHICH WILL LISTEN FOR USER INTERACTION
-    // AND CALL OUR EVENT HANDLERS, AND THE TIMER THREAD, WHICH 
-    // WILL UPDATE ALL THE GAME DATA, WHICH WILL FORCE RENDERING.
-    // THIS LOCK WILL MAKE SURE THAT ONE THREAD DOESN'T RUIN WHAT 
-    // THE OTHER IS DOING (CALLED A RACE CONDITION). EACH THREAD WILL 
-    // NEED TO LOCK THE DATA USING THIS OBJECT BEFORE EACH USE AND 
-    // THEN UNLOCK WHEN DONE WITH IT.
-    protected ReentrantLock dataLock;
+    // EVENT HANDLERS AND BACKGROUND THREADS DON'T CHANGE THE GAME DATA
+    // THEMSELVES, THEY PUT COMMANDS HERE THAT THE TIMER RUNS AT THE START
+    // OF EACH FRAME, IN THE ORDER THEY WERE PUT HERE. SINCE ANY THREAD
+    // MAY ADD TO IT WITHOUT WAITING ON ANOTHER, NO LOCK IS NEEDED
+    protected ConcurrentLinkedQueue<Runnable> commands;
+    
+    // THE MOUSE MAY MOVE MANY TIMES IN ONE FRAME, BUT ONLY WHERE IT ENDED
+    // UP MATTERS, SO ONLY THE LATEST MOUSE MOVE COMMAND IS KEPT
+    protected AtomicReference<Runnable> latestMouseMove;
     
     // THIS IS THE GAME WINDOW
     protected Stage window;
@@ -67,6 +70,10 @@ public abstract class PointAndClickGame {
     // THESE WILL HELP KEEP TRACK OF THE FRAME RATE
     protected int framesPerSecond;
     protected int frameDuration;
+    
+    // THIS IS SET WHENEVER SOMETHING CHANGED THAT THE GUI MAY NEED TO
+    // SHOW, SO updateGUI ISN'T CALLED FOR FRAMES WHERE NOTHING DID
+    protected boolean guiDirty = true;
 
     // THESE VARIABLES STORE THE PIXEL DISTANCES FROM THE EDGES
     // OF THE CANVAS WHERE THE GAME WILL BE PLAYED. BY SETTING
@@ -103,10 +110,11 @@ public abstract class PointAndClickGame {
 	// CALCULATE THE TIME EACH FRAME SHOULD TAKE
 	frameDuration = 1000 / framesPerSecond;
 
-	// CONSTRUCT OUR LOCK, WHICH WILL MAKE SURE
+	// CONSTRUCT OUR COMMAND QUEUE, WHICH WILL MAKE SURE
 	// WE ARE NOT UPDATING THE GAME DATA SIMULATEOUSLY
-	// IN TWO DIFFERENT THREADS
-	dataLock = new ReentrantLock();
+	// IN TWO DIFFERENT PLACES
+	commands = new ConcurrentLinkedQueue<>();
+	latestMouseMove = new AtomicReference<>();
 
 	// AND NOW SETUP THE FULL APP. NOTE THAT SOME
 	// OF THESE METHODS MUST BE CUSTOMLY PROVIDED FOR
@@ -321,29 +329,59 @@ public abstract class PointAndClickGame {
     // THIS FRAMEWORK NEED NOT EVEN KNOW ABOUT THESE METHODS,
     // JUST HOW TO PLUG INTO THEM THE SAME WAY YOU DON'T KNOW
     // ABOUT ALL THE INTERNAL WORKINGS OF SWING
-    // beginUsingData
-    // endUsingData
+    // enqueueCommand
+    // enqueueMouseMove
+    // processCommands
     // killApplication
     // processButtonPress
     // startGame
     // update
+    // render
+    // markGUIDirty
     
     /**
-     * This method locks access to the game data for the thread that invokes
-     * this method. All other threads will be locked out upon their own call to
-     * this method and will be forced to wait until this thread ends its use.
+     * This method puts a command on the queue to be run at the start of the
+     * next frame, before the game data is updated. It may be called from any
+     * thread and never waits.
+     *
+     * @param command the change to make to the game.
+     */
+    public void enqueueCommand(Runnable command) {
+	commands.add(command);
+    }
+
+    /**
+     * This method puts a mouse move command on the queue, replacing any mouse
+     * move command that hasn't been run yet, since only the latest position
+     * of the mouse matters.
+     *
+     * @param command the response to the mouse moving.
      */
-    public void beginUsingData() {
-	dataLock.lock();
+    public void enqueueMouseMove(Runnable command) {
+	latestMouseMove.set(command);
     }
 
     /**
-     * This method frees access to the game data for the thread that invokes
-     * this method. This will result in notifying any waiting thread that it may
-     * proceed.
+     * This method is called at the start of each frame and runs all the
+     * queued commands, in the order they were queued, followed by the latest
+     * mouse move. Note that the gui is then updated, since the commands may
+     * have changed what it should show.
      */
-    public void endUsingData() {
-	dataLock.unlock();
+    public void processCommands() {
+	boolean processed = false;
+	Runnable command;
+	while ((command = commands.poll()) != null) {
+	    command.run();
+	    processed = true;
+	}
+	command = latestMouseMove.getAndSet(null);
+	if (command != null) {
+	    command.run();
+	    processed = true;
+	}
+	if (processed) {
+	    guiDirty = true;
+	}
     }
 
     /**
@@ -365,8 +403,12 @@ public abstract class PointAndClickGame {
     }
 
     /**
-     * This method is called once per frame and updates and renders everything
-     * in the game including the gui.
+     * This method is called once per step of the game, which is a fixed
+     * amount of time, and updates all the game data.
+     *
+     * @param percentage how much of a frame the step is, where a frame is
+     * 50 milliseconds no matter what the frame rate is, so that things move
+     * at the same speed at any frame rate.
      */
     public void update(double percentage) {
 	// WE ONLY PERFORM GAME LOGIC
@@ -376,9 +418,36 @@ public abstract class PointAndClickGame {
 	    if (!data.isPaused()) {
 		data.updateAll(this, percentage);
 	    }
+	    guiDirty = true;
 	}
-	// WE ALWAYS HAVE TO WORRY ABOUT UPDATING THE GUI
-	updateGUI();
+    }
+
+    /**
+     * This method is called once per frame after all the steps that were due
+     * have been run, and renders the game, including the gui if anything has
+     * changed since it was last updated.
+     *
+     * @param alpha how far the game is between its last step and its next
+     * one, from 0.0 up to but not including 1.0.
+     */
+    public void render(double alpha) {
+	// MOVING THINGS ARE DRAWN PART OF THE WAY TO WHERE THEY'LL BE NEXT
+	if (data.inProgress() && !data.isPaused()) {
+	    data.interpolate(this, alpha);
+	}
+	// AND THE GUI ONLY IF IT MAY HAVE CHANGED
+	if (guiDirty) {
+	    guiDirty = false;
+	    updateGUI();
+	}
+    }
+
+    /**
+     * Call this method when something has changed outside of the game's steps,
+     * like in an event handler, that the gui should show next frame.
+     */
+    public void markGUIDirty() {
+	guiDirty = true;
     }
 
     // ABSTRACT METHODS - GAME-SPECIFIC IMPLEMENTATIONS REQUIRED
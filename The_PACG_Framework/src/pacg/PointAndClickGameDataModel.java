@@ -174,6 +174,7 @@ public abstract class PointAndClickGameDataModel {
     // pause
     // setGameDimensions
     // setGameState
+    // stopGame
     // unpause
     /**
      * Activates the debug text, allowing it to be rendered.
@@ -210,6 +211,14 @@ public abstract class PointAndClickGameDataModel {
 	gameState = PointAndClickGameState.WIN;
     }
 
+    /**
+     * Mutator method for setting the game state back to
+     * GameState.NOT_STARTED, as when a game is stopped part way through.
+     */
+    public void stopGame() {
+	gameState = PointAndClickGameState.NOT_STARTED;
+    }
+
     /**
      * Moves the position of the debug text by the provided increment.
      *
@@ -259,6 +268,19 @@ public abstract class PointAndClickGameDataModel {
 	paused = false;
     }
 
+    /**
+     * Called each frame after the game's steps, this method may place moving
+     * things part of the way between where the last step left them and where
+     * the next step will, so they move smoothly no matter how the frame rate
+     * and the step rate line up. By default nothing is done.
+     *
+     * @param game the game in progress
+     *
+     * @param alpha how far the game is between its last step and its next one
+     */
+    public void interpolate(PointAndClickGame game, double alpha) {
+    }
+
     // ABSTRACT METHODS - GAME-SPECIFIC IMPLEMENTATIONS REQUIRED
     // reset
     // updateAll
@@ -271,7 +293,7 @@ public abstract class PointAndClickGameDataModel {
     public abstract void reset(PointAndClickGame game);
 
     /**
-     * Called each frame, this method is for updating all the game data that is
+     * Called each step, this method is for updating all the game data that is
      * particular to the custom game application.
      *
      * @param game the game in progress that is to be updated.
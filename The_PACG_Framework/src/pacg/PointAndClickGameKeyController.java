@@ -7,7 +7,8 @@ import javafx.scene.input.KeyEvent;
  * This class provides some basic responses to key presses, including
  * togging the debugging rendering and pausing. In addition, the hook
  * function allows for a descendant class to hook into key presses
- * with custom responses.
+ * with custom responses. Note that the responses here are queued on the
+ * game rather than changing its data right away.
  *
  * @author Richard McKenna
  * @version 1.0
@@ -44,23 +45,27 @@ public class PointAndClickGameKeyController {
     public void processKeyPressed(KeyEvent ke) {
 	// THE 'D' KEY TOGGLES DEBUG TEXT DISPLAY
 	if (ke.getCode() == KeyCode.D) {
-	    // TOGGLE IT OFF
-	    if (game.getDataModel().isDebugTextRenderingActive()) {
-		game.getDataModel().deactivateDebugTextRendering();
-	    } // TOGGLE IT ON
-	    else {
-		game.getDataModel().activateDebugTextRendering();
-	    }
+	    game.enqueueCommand(() -> {
+		// TOGGLE IT OFF
+		if (game.getDataModel().isDebugTextRenderingActive()) {
+		    game.getDataModel().deactivateDebugTextRendering();
+		} // TOGGLE IT ON
+		else {
+		    game.getDataModel().activateDebugTextRendering();
+		}
+	    });
 	} // THE 'P' KEY PAUSES THE GAME, WHICH MEANS 
 	// ALL UPDATE LOGIC GETS SKIPPED
 	else if (ke.getCode() == KeyCode.P) {
-	    // TOGGLE THE OFF
-	    if (game.getDataModel().isPaused()) {
-		game.getDataModel().unpause();
-	    } // TOGGLE IT ON
-	    else {
-		game.getDataModel().pause();
-	    }
+	    game.enqueueCommand(() -> {
+		// TOGGLE THE OFF
+		if (game.getDataModel().isPaused()) {
+		    game.getDataModel().unpause();
+		} // TOGGLE IT ON
+		else {
+		    game.getDataModel().pause();
+		}
+	    });
 	}
 	
 	// CALL THE HOOK FUNCTION
@@ -4,7 +4,12 @@ import javafx.animation.AnimationTimer;
 
 /**
  * This simple class serves as the task executed each frame for updating, and
- * then rendering the game.
+ * then rendering the game. Note that the game is updated in fixed time steps,
+ * one per frame of the game's frame rate, no matter how often JavaFX calls
+ * handle. The time that has passed is added up, and as many steps are run as
+ * fit into it, with whatever is left over used to render the game part of the
+ * way between its last two steps. Anything queued on the game since the last
+ * frame is done first, so none of it can happen in the middle of a step.
  *
  * @author Richard McKenna
  * @version 1.0
@@ -14,14 +19,29 @@ public class PointAndClickGameTimer extends AnimationTimer {
     // WE'LL UPDATE THIS game OBJECT EACH FRAME
     protected PointAndClickGame game;
     
-    // THE TARGET FRAME RATE
-    protected long targetFPS = 50;
+    // HOW LONG EACH STEP OF THE GAME IS, IN NANOSECONDS
+    protected long stepDuration;
+    
+    // THE TIME THAT HAS PASSED BUT HASN'T BEEN STEPPED THROUGH YET
+    protected long accumulator = 0;
     
     // THE TIME OF THE LAST FRAME
     protected long lastTime = 0;
     
     // JavaFX HAS A HIGH RESOLUTION TIMER
     protected long TIMER_RESOLUTION = 1000000;
+    
+    // HOW LONG A FULL FRAME IS WHEN IT COMES TO THE PERCENTAGE PASSED TO
+    // UPDATE, WHICH IS WHAT THE GAMES' VELOCITIES HAVE ALWAYS BEEN PER
+    protected long PERCENTAGE_DURATION = 50 * TIMER_RESOLUTION;
+
+    // HOW MUCH OF A FULL FRAME EACH STEP IS
+    protected double stepPercentage;
+
+    // THE MOST STEPS RUN IN ONE FRAME, SO THAT IF THE GAME FALLS BEHIND,
+    // SAY BECAUSE THE WINDOW WAS DRAGGED, IT DOESN'T TRY TO CATCH UP ALL
+    // AT ONCE AND FALL FURTHER BEHIND
+    protected int MAX_STEPS_PER_FRAME = 5;
 
     /**
      * Constructor for initializing the task, it simply stores away the game to
@@ -32,36 +52,39 @@ public class PointAndClickGameTimer extends AnimationTimer {
     public PointAndClickGameTimer(PointAndClickGame initGame) {
 	// STORE FOR LATER
 	game = initGame;
+	stepDuration = (1000 * TIMER_RESOLUTION) / game.getFrameRate();
+	stepPercentage = ((double)stepDuration) / PERCENTAGE_DURATION;
     }
 
     /**
-     * Called 30 times per second, or whatever the current frame rate is, this
-     * method updates the game and renders it, making sure to get a lock on the
-     * data before doing so and releasing the data when done.
+     * Called each time JavaFX renders, this method runs the commands queued
+     * on the game, then as many steps of the game as are due, and renders it.
      */
     @Override
     public void handle(long now) {
-	try {
-	    // LOCK THE DATA
-	    game.beginUsingData();
+	// FIRST RESPOND TO EVERYTHING THAT HAPPENED SINCE THE LAST FRAME
+	game.processCommands();
 
-	    // CALCULATE THE PERCENTAGE OF THE TARGET FPS
-	    // THAT THE LAST FRAME TOOK
-	    double percentage = 0.0;
-	    if (lastTime != 0)
-		percentage = ((double)(now - lastTime))/(targetFPS * TIMER_RESOLUTION);
-	    
-	    // RECORD THIS FOR THE NEXT FRAME
-	    lastTime = now;
-	    
-	    // UPDATE THE GAME
-	    game.update(percentage);
-	    
-	} finally {
-	    // RELEASE IT, SINCE THE OTHER THREAD
-	    // MIGHT WANT TO UPDATE STUFF IN RESPONSE
-	    // TO A MOUSE CLICK
-	    game.endUsingData();
+	// ADD UP THE TIME SINCE THE LAST FRAME
+	if (lastTime != 0)
+	    accumulator += now - lastTime;
+	
+	// RECORD THIS FOR THE NEXT FRAME
+	lastTime = now;
+	
+	// UPDATE THE GAME ONE FULL STEP AT A TIME
+	int steps = 0;
+	while ((accumulator >= stepDuration) && (steps < MAX_STEPS_PER_FRAME)) {
+	    game.update(stepPercentage);
+	    accumulator -= stepDuration;
+	    steps++;
 	}
+	
+	// IF WE'RE STILL BEHIND, LET THE MISSED TIME GO
+	if (accumulator >= stepDuration)
+	    accumulator %= stepDuration;
+	
+	// AND RENDER IT PART OF THE WAY TO THE NEXT STEP
+	game.render(((double)accumulator)/stepDuration);
     }
 }
@@ -1,8 +1,13 @@
 package world_data;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class represents a named region for a geographic application where
@@ -13,19 +18,20 @@ import java.util.Iterator;
  *          Debugging Enterprises
  * @version 1.0
  */
-public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
+public class Region implements Comparable<Region>
 {
+    // THIS IS CHANGED EVERY TIME ANY REGION GETS A NEW PARENT, WHICH
+    // TELLS US WHEN THE PATHS WE'VE REMEMBERED MAY BE OUT OF DATE
+    private static final AtomicInteger TREE_VERSION = new AtomicInteger(0);
+    
     // UNIQUE IDENTIFIER FOR THIS REGION
     private String id;
     
     // NAME OF REGION
     private String name;
     
-    //COLORS OF REGIONS
-    
-    private int red;
-    private int green;
-    private int blue;
+    // COLOR OF THE REGION ON ITS MAP, PACKED AS 0xRRGGBB
+    private int rgb;
     
     // CAPTIAL OF THIS REGION. NOTE THAT SOME REGIONS DO NOT HAVE A CAPITAL
     private String capital;
@@ -40,9 +46,17 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
     private Region parentRegion;
     
     // LIST OF CHILD REGIONS FOR THIS ONE. FOR EXAMPLE, A NATION
-    // WOULD LIST STATES HERE
+    // WOULD LIST STATES HERE. NOTE THAT LEAVES DON'T HAVE A LIST, IT'S
+    // ONLY MADE WHEN THE FIRST CHILD IS ADDED
     private ArrayList<Region> subRegions;
     
+    // THE SAME CHILD REGIONS, BY NAME, SO WE CAN FIND THEM QUICKLY
+    private HashMap<String, Region> subRegionsByName;
+    
+    // THE PATH FROM THE ROOT DOWN TO THIS REGION, REMEMBERED THE FIRST
+    // TIME IT'S NEEDED
+    private volatile RootPath rootPath;
+    
     /**
      * Constructor that initializes the three required fields for any
      * region: its id, name, and type
@@ -58,35 +72,50 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
     
     public Region(String initId, String initName, RegionType initType){
         id = initId;
-        name = initName;
+        name = intern(initName);
         type = initType;
         
         parentRegion = null;
         capital = null;
-        
-        subRegions = new ArrayList();
     }
     public Region(String initName, String initRed, String initGreen, String initBlue)
     {
         // INIT THE PROVIDED FIELDS
        
-        name = initName;
+        name = intern(initName);
         
-        red = Integer.parseInt(initRed);
-        green = Integer.parseInt(initGreen);;
-        blue = Integer.parseInt(initBlue);;
+        rgb = packRGB(Integer.parseInt(initRed), Integer.parseInt(initGreen), Integer.parseInt(initBlue));
                
         
         // NULL THE MISSING FIELDS
         parentRegion = null;
         capital = null;
+    }
+    
+    /**
+     * Constructor for a region whose color is already known as numbers,
+     * rather than as the text found in XML files.
+     * 
+     * @param initName The name of this region.
+     * 
+     * @param initRed The red component of this region's map color.
+     * 
+     * @param initGreen The green component of this region's map color.
+     * 
+     * @param initBlue The blue component of this region's map color.
+     */
+    public Region(String initName, int initRed, int initGreen, int initBlue)
+    {
+        name = intern(initName);
+        rgb = packRGB(initRed, initGreen, initBlue);
         
-        // AND SETUP THE LIST SO WE CAN ADD CHILD REGIONS
-        subRegions = new ArrayList();
+        // NULL THE MISSING FIELDS
+        parentRegion = null;
+        capital = null;
     }
     
-    public Region(String name){
-        name = name;
+    public Region(String initName){
+        name = intern(initName);
         
         id = null;
         type = null;
@@ -94,9 +123,6 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
         // NULL THE MISSING FIELDS
         parentRegion = null;
         capital = null;
-        
-        // AND SETUP THE LIST SO WE CAN ADD CHILD REGIONS
-        subRegions = new ArrayList();
     }
     
     /**
@@ -119,13 +145,13 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
         this(initName, initRed, initGreen, initBlue);
         
         // WE'LL KEEP THE CAPITAL
-        capital = initCapital;
+        capital = intern(initCapital);
     }
     
     public Region(String initName, String initRed, String initGreen, String initBlue, String initCapital, String initLeader){
         
         this(initName, initRed, initGreen, initBlue);
-        leader = initLeader;
+        leader = intern(initLeader);
     }
 
     // ACCESSOR METHODS
@@ -165,11 +191,18 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
      */    
     public String       getCapital()        { return capital;       }
     
-    public int          getRed()            { return red;       }
+    public int          getRed()            { return (rgb >> 16) & 0xFF;    }
     
-    public int          getGreen()            { return green;       }
+    public int          getGreen()          { return (rgb >> 8) & 0xFF;     }
     
-    public int          getBlue()            { return blue;       }
+    public int          getBlue()           { return rgb & 0xFF;            }
+    
+    /**
+     * Accessor method for getting this region's map color.
+     * 
+     * @return The color, packed as 0xRRGGBB.
+     */
+    public int          getRGB()            { return rgb;                   }
     
     public String       getLeader()         {   return leader; }
     /**
@@ -181,36 +214,77 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
      */
     public Iterator<Region> getSubRegions()
     {
+        if (subRegions == null)
+        {
+            return Collections.emptyIterator();
+        }
         return subRegions.iterator();
     }
 
     /**
      * Accessor method for getting the child Region of this one that
-     * has an id the same as the subRegionId argument.
+     * has a name the same as the subRegionName argument.
      * 
-     * @param subRegionId The region id of the Region we're looking for.
+     * @param subRegionName The name of the Region we're looking for.
      * 
-     * @return The found region with the same id as the subRegionId argument.
+     * @return The found region with the same name as the subRegionName
+     * argument, or null if there isn't one.
      */
-    public Region getSubRegion(String subRegionId)
+    public Region getSubRegion(String subRegionName)
     {
-        // GO THROUGH ALL THE CHILD REGIONS
-        Iterator it = subRegions.iterator();
-        while (it.hasNext())
-        {
-            Region subRegion = (Region)it.next();
-            
-            // DID WE FIND IT?
-            if (subRegion.id.equals(subRegionId))
-            {
-                // YUP, RETURN IT
-                return subRegion;
-            }
-        }
-        // NOPE, RETURN NULL
-        return null;
+        return (subRegionsByName == null) ? null : subRegionsByName.get(subRegionName);
     }    
     
+    /**
+     * Accessor method for getting how deep in the tree this region is.
+     * 
+     * @return The number of ancestors this region has, so 0 for a root.
+     */
+    public int getDepth()
+    {
+        return getRootPath().length - 1;
+    }
+    
+    /**
+     * Accessor method for getting the ancestor of this region at the
+     * given depth, where the root is at depth 0 and this region is at
+     * getDepth().
+     * 
+     * @param depth How deep the ancestor we want is.
+     * 
+     * @return The ancestor at that depth.
+     */
+    public Region getAncestor(int depth)
+    {
+        return getRootPath()[depth];
+    }
+    
+    /**
+     * Accessor method for getting all the regions from the root of the
+     * tree down to this one, in order. Note that the list can't be
+     * changed and is shared by all callers until the tree changes.
+     * 
+     * @return The path from the root to this region.
+     */
+    public List<Region> getPathFromRoot()
+    {
+        return Collections.unmodifiableList(Arrays.asList(getRootPath()));
+    }
+    
+    /**
+     * Tests to see if this region is in the tree below testRegion.
+     * 
+     * @param testRegion The possible ancestor.
+     * 
+     * @return true if testRegion is an ancestor of this region.
+     */
+    public boolean isDescendantOf(Region testRegion)
+    {
+        Region[] path = getRootPath();
+        int testDepth = testRegion.getDepth();
+        return (testDepth < path.length - 1) && (path[testDepth] == testRegion);
+    }
+    
     /**
      * This method tests to see if this region is a leaf region (i.e.
      * has no child regions) or not.
@@ -219,7 +293,7 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
      */    
     public boolean hasSubRegions()
     {
-        return !subRegions.isEmpty();
+        return (subRegions != null) && !subRegions.isEmpty();
     }    
     
     /**
@@ -252,7 +326,7 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
      */
     public void setName(String initName)
     {
-        name = initName;
+        name = intern(initName);
     }
 
     /**
@@ -262,7 +336,7 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
      */
     public void setCapital(String initCapital)
     {
-        capital = initCapital;
+        capital = intern(initCapital);
     }
 
     /**
@@ -276,7 +350,7 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
     }
     
     public void setLeader(String leader){
-        this.leader = leader;
+        this.leader = intern(leader);
     }
     public void setRed(){
         
@@ -291,7 +365,11 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
      */
     public void setParentRegion(Region initParentRegion)
     {
-        parentRegion = initParentRegion;
+        if (parentRegion != initParentRegion)
+        {
+            parentRegion = initParentRegion;
+            TREE_VERSION.incrementAndGet();
+        }
     }
     
     // ADDITIONAL SERVICE METHODS
@@ -304,11 +382,40 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
      */
     public void addSubRegion(Region subRegionToAdd)
     {
-        // ADD IT TO OUR DATA STRUCTURE
-        subRegions.add(subRegionToAdd);
+        // ADD IT TO OUR DATA STRUCTURE, KEEPING IT SORTED BY NAME
+        makeSubRegionLists();
+        int index = Collections.binarySearch(subRegions, subRegionToAdd);
+        subRegions.add((index < 0) ? (-index - 1) : index, subRegionToAdd);
         
-        // AND LET'S KEEP IT SORTED BY NAME
+        // AND INDEX IT
+        subRegionsByName.put(subRegionToAdd.getName(), subRegionToAdd);
+    }
+
+    /**
+     * Adds a whole group of regions to be child regions of this one,
+     * sorting them only once they're all in.
+     * 
+     * @param subRegionsToAdd Regions to be added as sub regions.
+     */
+    public void addSubRegions(Collection<Region> subRegionsToAdd)
+    {
+        makeSubRegionLists();
+        subRegions.addAll(subRegionsToAdd);
         Collections.sort(subRegions);
+        for (Region subRegion : subRegionsToAdd)
+        {
+            subRegionsByName.put(subRegion.getName(), subRegion);
+        }
+    }
+
+    /**
+     * Removes all the child regions of this one, note that they still
+     * consider this region to be their parent.
+     */
+    public void removeAllSubRegions()
+    {
+        subRegions = null;
+        subRegionsByName = null;
     }
 
     /*
@@ -317,9 +424,85 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
      */
     public void removeSubRegion(Region subRegionToRemove)
     {
-        // TAKE IT OUT OF OUR DATA STRUCTURE
-        subRegions.remove(subRegionToRemove);
+        // TAKE IT OUT OF OUR DATA STRUCTURE, NOTE THAT WE LOOK FOR THIS
+        // VERY REGION SINCE REGIONS WITHOUT IDS CAN'T BE COMPARED
+        if (subRegions == null)
+        {
+            return;
+        }
+        for (int i = 0; i < subRegions.size(); i++)
+        {
+            if (subRegions.get(i) == subRegionToRemove)
+            {
+                subRegions.remove(i);
+                break;
+            }
+        }
+        
+        // AND OUT OF THE INDEX
+        if (subRegionsByName.get(subRegionToRemove.getName()) == subRegionToRemove)
+        {
+            subRegionsByName.remove(subRegionToRemove.getName());
+        }
+        
+        // A REGION WITH NO CHILDREN LEFT IS A LEAF AGAIN
+        if (subRegions.isEmpty())
+        {
+            removeAllSubRegions();
+        }
     }    
+    
+    // HELPER METHOD FOR MAKING THE LISTS OF CHILD REGIONS THE FIRST
+    // TIME ONE IS ADDED
+    private void makeSubRegionLists()
+    {
+        if (subRegions == null)
+        {
+            subRegions = new ArrayList<>();
+            subRegionsByName = new HashMap<>();
+        }
+    }
+    
+    // HELPER METHOD FOR KEEPING ONE COPY OF EACH NAME, CAPITAL, AND LEADER
+    // NO MATTER HOW MANY FILES IT WAS READ FROM. THE JVM'S STRING POOL
+    // MAY BE USED BY ANY NUMBER OF THREADS AT ONCE, AND IT LETS GO OF
+    // STRINGS ONCE NO REGION USES THEM, SO LEVELS THAT ARE DROPPED
+    // DON'T LEAVE THEIR STRINGS BEHIND
+    private static String intern(String string)
+    {
+        return (string == null) ? null : string.intern();
+    }
+    
+    // HELPER METHOD FOR PACKING A COLOR INTO ONE INT
+    private static int packRGB(int red, int green, int blue)
+    {
+        return ((red & 0xFF) << 16) | ((green & 0xFF) << 8) | (blue & 0xFF);
+    }
+    
+    // HELPER METHOD FOR GETTING THE PATH FROM THE ROOT AS AN ARRAY,
+    // WHICH IS ONLY WORKED OUT AGAIN IF SOME REGION'S PARENT CHANGED
+    private Region[] getRootPath()
+    {
+        int version = TREE_VERSION.get();
+        RootPath path = rootPath;
+        if ((path == null) || (path.version != version))
+        {
+            Region[] regions;
+            if (parentRegion == null)
+            {
+                regions = new Region[] { this };
+            }
+            else
+            {
+                Region[] parentPath = parentRegion.getRootPath();
+                regions = Arrays.copyOf(parentPath, parentPath.length + 1);
+                regions[parentPath.length] = this;
+            }
+            path = new RootPath(version, regions);
+            rootPath = path;
+        }
+        return path.regions;
+    }
 
     /**
      * Used for comparing Regions for the purpose of sorting them.
@@ -330,7 +513,7 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
      * name alphabetically precedes it, and 1 if it follows it.
      */
     @Override
-    public int compareTo(Region<T> region)
+    public int compareTo(Region region)
     {
         return name.compareTo(region.name);
     }
@@ -365,4 +548,20 @@ public class Region<T extends Comparable<T>> implements Comparable<Region<T>>
     {
         return name;
     }
+    
+    /**
+     * A RootPath is a remembered path from the root to a region, along
+     * with the version of the tree it was worked out for.
+     */
+    private static class RootPath
+    {
+        private final int version;
+        private final Region[] regions;
+        
+        private RootPath(int initVersion, Region[] initRegions)
+        {
+            version = initVersion;
+            regions = initRegions;
+        }
+    }
 }
\ No newline at end of file
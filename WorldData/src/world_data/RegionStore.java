@@ -0,0 +1,234 @@
+package world_data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class stores a whole region hierarchy as a structure of arrays,
+ * with one slot in each array per region, rather than as Region objects.
+ * Names, capitals, and leaders are numbers in a string table and colors
+ * are packed RGB ints, so each region costs a few ints no matter how big
+ * the hierarchy is. Regions are found by their slot number, the root is
+ * always slot 0, and every region must be added after its parent.
+ *
+ * Region objects are only made when asked for, as independent copies of
+ * the stored data, so changing one doesn't change the store. This is how
+ * WorldDataManager uses a store to fill in its tree without reading any
+ * files.
+ *
+ * @author  Richard McKenna
+ *          Debugging Enterprises
+ * @version 1.0
+ */
+public class RegionStore
+{
+    // USED FOR MISSING STRINGS AND REGIONS
+    public static final int NONE = StringTable.NONE;
+
+    // HOW MANY SLOTS A NEW STORE STARTS WITH
+    public static final int DEFAULT_CAPACITY = 256;
+
+    // THE STRINGS THE REGIONS USE
+    private StringTable strings;
+
+    // ONE SLOT PER REGION IN EACH OF THESE
+    private int[] names;
+    private int[] colors;
+    private int[] capitals;
+    private int[] leaders;
+    private int[] parents;
+
+    // THE CHILDREN OF EACH REGION, AS A LINKED LIST OF SLOTS
+    private int[] firstChildren;
+    private int[] lastChildren;
+    private int[] nextSiblings;
+
+    // HOW MANY SLOTS ARE IN USE
+    private int size;
+
+    /**
+     * Constructor for an empty store with a string table of its own.
+     */
+    public RegionStore()
+    {
+        this(new StringTable(), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for an empty store with room for initCapacity regions
+     * before it has to grow, whose strings are put in initStrings.
+     */
+    public RegionStore(StringTable initStrings, int initCapacity)
+    {
+        strings = initStrings;
+        int capacity = Math.max(1, initCapacity);
+        names = new int[capacity];
+        colors = new int[capacity];
+        capitals = new int[capacity];
+        leaders = new int[capacity];
+        parents = new int[capacity];
+        firstChildren = new int[capacity];
+        lastChildren = new int[capacity];
+        nextSiblings = new int[capacity];
+        size = 0;
+    }
+
+    // ACCESSOR METHODS
+
+    public int          size()                      { return size;                          }
+    public String       getName(int region)         { return strings.get(names[region]);    }
+    public int          getRGB(int region)          { return colors[region];                }
+    public String       getCapital(int region)      { return strings.get(capitals[region]); }
+    public String       getLeader(int region)       { return strings.get(leaders[region]);  }
+    public int          getParent(int region)       { return parents[region];               }
+    public int          getFirstChild(int region)   { return firstChildren[region];         }
+    public int          getNextSibling(int region)  { return nextSiblings[region];          }
+    public StringTable  getStrings()                { return strings;                       }
+
+    /**
+     * Finds the child of a region with the given name.
+     *
+     * @param region The slot of the parent region.
+     *
+     * @param name The name of the child we want.
+     *
+     * @return The slot of the child, or NONE if there isn't one.
+     */
+    public int findChild(int region, String name)
+    {
+        int nameId = strings.getId(name);
+        if (nameId == NONE)
+        {
+            return NONE;
+        }
+        for (int child = firstChildren[region]; child != NONE; child = nextSiblings[child])
+        {
+            if (names[child] == nameId)
+            {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Finds a region by the names of the regions from the root down to
+     * it, starting with the root's own name.
+     *
+     * @param pathFromRoot The names along the path.
+     *
+     * @return The slot of the region, or NONE if there isn't one.
+     */
+    public int find(List<String> pathFromRoot)
+    {
+        if ((size == 0) || pathFromRoot.isEmpty() || !pathFromRoot.get(0).equals(getName(0)))
+        {
+            return NONE;
+        }
+        int region = 0;
+        for (int i = 1; (i < pathFromRoot.size()) && (region != NONE); i++)
+        {
+            region = findChild(region, pathFromRoot.get(i));
+        }
+        return region;
+    }
+
+    /**
+     * Makes a Region with the stored data of one slot. Note that it has
+     * no parent or sub regions.
+     *
+     * @param region The slot of the region.
+     *
+     * @return A new Region with the slot's name, color, capital, and leader.
+     */
+    public Region makeRegion(int region)
+    {
+        int rgb = colors[region];
+        Region copy = new Region(getName(region), (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+        copy.setCapital(getCapital(region));
+        copy.setLeader(getLeader(region));
+        return copy;
+    }
+
+    /**
+     * Makes Regions for all the children of a region.
+     *
+     * @param region The slot of the parent region.
+     *
+     * @return A new Region for each child, in the order they were added.
+     */
+    public ArrayList<Region> makeSubRegions(int region)
+    {
+        ArrayList<Region> subRegions = new ArrayList<>();
+        for (int child = firstChildren[region]; child != NONE; child = nextSiblings[child])
+        {
+            subRegions.add(makeRegion(child));
+        }
+        return subRegions;
+    }
+
+    // MUTATOR METHODS
+
+    /**
+     * Adds a region to the store.
+     *
+     * @param name The region's name.
+     *
+     * @param rgb The region's color, packed as 0xRRGGBB.
+     *
+     * @param capital The region's capital, which may be null.
+     *
+     * @param leader The region's leader, which may be null.
+     *
+     * @param parent The slot of the region's parent, which must already
+     * be in the store, or NONE for the root.
+     *
+     * @return The slot of the new region.
+     */
+    public int add(String name, int rgb, String capital, String leader, int parent)
+    {
+        if (size == names.length)
+        {
+            grow();
+        }
+        int region = size++;
+        names[region] = strings.add(name);
+        colors[region] = rgb;
+        capitals[region] = strings.add(capital);
+        leaders[region] = strings.add(leader);
+        parents[region] = parent;
+        firstChildren[region] = NONE;
+        lastChildren[region] = NONE;
+        nextSiblings[region] = NONE;
+
+        // AND ADD IT TO THE END OF ITS PARENT'S CHILDREN
+        if (parent != NONE)
+        {
+            if (firstChildren[parent] == NONE)
+            {
+                firstChildren[parent] = region;
+            }
+            else
+            {
+                nextSiblings[lastChildren[parent]] = region;
+            }
+            lastChildren[parent] = region;
+        }
+        return region;
+    }
+
+    // HELPER METHOD FOR MAKING ROOM FOR MORE REGIONS
+    private void grow()
+    {
+        int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        colors = Arrays.copyOf(colors, capacity);
+        capitals = Arrays.copyOf(capitals, capacity);
+        leaders = Arrays.copyOf(leaders, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        lastChildren = Arrays.copyOf(lastChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+    }
+}
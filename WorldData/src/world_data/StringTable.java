@@ -0,0 +1,108 @@
+package world_data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * This class keeps one copy of each of the strings given to it, each with
+ * a number of its own. Each RegionStore has its own table, and uses the
+ * numbers in place of the strings themselves, so the table is let go
+ * along with the store.
+ *
+ * @author  Richard McKenna
+ *          Debugging Enterprises
+ * @version 1.0
+ */
+public class StringTable
+{
+    // USED FOR MISSING STRINGS
+    public static final int NONE = -1;
+
+    // THE STRINGS IN THE ORDER THEY WERE ADDED, SO A STRING'S NUMBER
+    // IS ITS POSITION
+    private ArrayList<String> strings;
+
+    // AND THE NUMBER OF EACH STRING
+    private HashMap<String, Integer> ids;
+
+    /**
+     * Constructor for an empty table.
+     */
+    public StringTable()
+    {
+        strings = new ArrayList<>();
+        ids = new HashMap<>();
+    }
+
+    /**
+     * Adds a string to the table if it's not already in it.
+     *
+     * @param string The string to add, which may be null.
+     *
+     * @return The number of the string, or NONE if it's null.
+     */
+    public synchronized int add(String string)
+    {
+        if (string == null)
+        {
+            return NONE;
+        }
+        Integer id = ids.get(string);
+        if (id == null)
+        {
+            // THE TABLE KEEPS THE SAME COPY THE REGIONS DO
+            String copy = string.intern();
+            id = strings.size();
+            strings.add(copy);
+            ids.put(copy, id);
+        }
+        return id;
+    }
+
+    /**
+     * Gets the table's copy of a string, adding it if need be.
+     *
+     * @param string The string we want the table's copy of.
+     *
+     * @return The table's copy, or null if string is null.
+     */
+    public synchronized String intern(String string)
+    {
+        int id = add(string);
+        return (id == NONE) ? null : strings.get(id);
+    }
+
+    /**
+     * Accessor method for getting a string by its number.
+     *
+     * @param id The number of the string.
+     *
+     * @return The string, or null if id is NONE.
+     */
+    public synchronized String get(int id)
+    {
+        return (id == NONE) ? null : strings.get(id);
+    }
+
+    /**
+     * Accessor method for getting the number of a string that's already
+     * in the table.
+     *
+     * @param string The string to look for.
+     *
+     * @return The number of the string, or NONE if it's not in the table.
+     */
+    public synchronized int getId(String string)
+    {
+        Integer id = (string == null) ? null : ids.get(string);
+        return (id == null) ? NONE : id;
+    }
+
+    /**
+     * Accessor method for getting how many strings are in the table.
+     */
+    public synchronized int size()
+    {
+        return strings.size();
+    }
+}
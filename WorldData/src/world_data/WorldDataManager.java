@@ -2,9 +2,15 @@ package world_data;
 
 import java.io.File;
 
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -12,21 +18,72 @@ import java.util.TreeMap;
  *  This is a data management class for Regions, providing a means
  *  to add, remove, and find regions.
  * 
+ *  Regions are kept as a tree that's filled in one level at a time,
+ *  where a level is all the sub regions listed in one region's data
+ *  file, which is in a directory named after the region. A level is
+ *  only read the first time it's needed, along with the levels above
+ *  it, and is then remembered, so going back to a region never reads
+ *  its file again. Only the most recently used levels are kept for
+ *  certain, older ones are detached from the tree and only softly
+ *  held, so the garbage collector may take them back if memory runs
+ *  low, in which case they're simply read again when next needed.
+ *  Note that the methods dealing with levels are synchronized, so
+ *  levels may be loaded on other threads.
+ * 
+ *  Optionally, a RegionStore holding the whole hierarchy in compact
+ *  form may be provided, in which case levels are made from it rather
+ *  than read from their files whenever it has them.
+ * 
  *  @author Richard McKenna
  *          Debugging Enterprises
  *          Version 1.0
  */
 public class WorldDataManager 
 {
+    // EACH REGION'S SUB REGIONS ARE LISTED IN A FILE NAMED LIKE THIS
+    // IN A DIRECTORY NAMED AFTER THE REGION
+    public static final String DATA_FILE_SUFFIX = " Data.xml";
+    
+    // THE DEFAULT NUMBER OF LEVELS WE KEEP FOR CERTAIN
+    public static final int DEFAULT_MAX_HOT_LEVELS = 16;
+    
     // THIS IS WHERE WE'LL STORE ONE OF EACH REGION
     private TreeMap<String, Region> allRegions;
     
+    // THE SAME REGIONS, HASHED BY NAME FOR QUICK LOOKUPS
+    private HashMap<String, Region> currentRegionsByName;
+    
+    // EVERY REGION IN THE TREE BY NAME. NOTE THAT DIFFERENT LEVELS MAY
+    // HAVE REGIONS WITH THE SAME NAME, THE LAST ONE ADDED IS LAST
+    private HashMap<String, ArrayList<Region>> regionsByName;
+    
     // THERE SHOULD ONLY BE ONE WORLD NODE, WHICH IS THE ROOT
     private Region world;
     
     // THIS WILL DO THE READING/WRITING OF FILES. NOTE THAT
     // THE CONCRETE CLASS IMPLEMENTATION MUST BE PROVIDED
     private WorldImporterExporter worldImporterExporter;
+    
+    // THE DIRECTORY WITH THE ROOT'S FILES, IF THE ROOT CAME FROM A LEVEL
+    private File worldDir;
+    
+    // THE LEVELS WE'VE READ AND STILL HAVE IN THE TREE, BY DATA FILE
+    // PATH, ORDERED FROM LEAST TO MOST RECENTLY USED
+    private LinkedHashMap<String, Level> hotLevels;
+    
+    // THE LEVELS THAT HAVE BEEN DETACHED FROM THE TREE, WHICH THE
+    // GARBAGE COLLECTOR MAY TAKE BACK
+    private HashMap<String, SoftReference<Level>> coldLevels;
+    
+    // THE MOST LEVELS WE'LL KEEP IN THE TREE
+    private int maxHotLevels;
+    
+    // IF WE HAVE ONE, LEVELS ARE MADE FROM THIS RATHER THAN READ
+    private RegionStore regionStore;
+    
+    // FOR REPORTING HOW WELL THE LEVELS ARE BEING REUSED
+    private int levelReads;
+    private int levelHits;
         
     /**
      * Default constructor, it will initialize all necessary data structures
@@ -37,6 +94,26 @@ public class WorldDataManager
     {
         // INIT WHERE WE'LL PUT OUR DATA
         allRegions = new TreeMap();
+        currentRegionsByName = new HashMap<>();
+        regionsByName = new HashMap<>();
+        
+        // AND WHERE WE'LL REMEMBER THE LEVELS WE READ
+        maxHotLevels = DEFAULT_MAX_HOT_LEVELS;
+        hotLevels = new LinkedHashMap<String, Level>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Level> eldest)
+            {
+                if (size() > maxHotLevels)
+                {
+                    coolLevel(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        coldLevels = new HashMap<>();
+        levelReads = 0;
+        levelHits = 0;
     }    
     
     // ACCESSOR METHODS
@@ -58,9 +135,97 @@ public class WorldDataManager
      * 
      * @return The Region that corresponds to the regionId.
      */
-    public Region getRegion(String regionName)
+    public synchronized Region getRegion(String regionName)
+    {
+        // THE CURRENT LEVEL COMES FIRST
+        Region region = currentRegionsByName.get(regionName);
+        if (region != null)
+        {
+            return region;
+        }
+        
+        // THEN THE REST OF THE TREE
+        ArrayList<Region> regions = regionsByName.get(regionName);
+        return (regions == null) ? null : regions.get(regions.size() - 1);
+    }
+    
+    /**
+     * Accessor method for getting the sub regions of a region, reading
+     * them first if they haven't been read yet or were let go. Note
+     * that the returned list is a copy.
+     * 
+     * @param region The region whose sub regions we want.
+     * 
+     * @return The sub regions of region, sorted by name.
+     */
+    public synchronized ArrayList<Region> getSubRegions(Region region)
+    {
+        File dataFile = getDataFile(region);
+        if ((dataFile != null) && dataFile.exists())
+        {
+            return new ArrayList<>(getLevel(dataFile).subRegions);
+        }
+        
+        // IT'S NOT PART OF A TREE WE KNOW HOW TO READ, SO WHATEVER
+        // IT HAS IS ALL THERE IS
+        ArrayList<Region> subRegions = new ArrayList<>();
+        Iterator<Region> it = region.getSubRegions();
+        while (it.hasNext())
+        {
+            subRegions.add(it.next());
+        }
+        return subRegions;
+    }
+    
+    /**
+     * Accessor method for getting the data file that lists a region's
+     * sub regions, which is only known for regions in the tree below a
+     * root that was read from a level.
+     * 
+     * @param region The region whose data file we want.
+     * 
+     * @return The data file, which may not exist, or null if it can't
+     * be known.
+     */
+    public synchronized File getDataFile(Region region)
+    {
+        if ((worldDir == null) || (region.getAncestor(0) != world))
+        {
+            return null;
+        }
+        File dir = worldDir;
+        for (int depth = 1; depth <= region.getDepth(); depth++)
+        {
+            dir = new File(dir, region.getAncestor(depth).getName());
+        }
+        return new File(dir, dir.getName() + DATA_FILE_SUFFIX);
+    }
+    
+    /**
+     * Accessor method for getting the number of times a level's data
+     * file has been read.
+     */
+    public synchronized int getLevelReads()
+    {
+        return levelReads;
+    }
+    
+    /**
+     * Accessor method for getting the number of times a level was
+     * needed and we already had it.
+     */
+    public synchronized int getLevelHits()
     {
-        return allRegions.get(regionName);
+        return levelHits;
+    }
+    
+    /**
+     * Accessor method for getting the number of levels we're keeping
+     * for certain.
+     */
+    public synchronized int getNumHotLevels()
+    {
+        return hotLevels.size();
     }
 
     /**
@@ -85,22 +250,9 @@ public class WorldDataManager
      */
     public LinkedList<Region> getPathFromRoot(Region region)
     {
-        // WE'LL PUT ALL THE REGIONS IN THE PATH HERE
-        LinkedList<Region> path = new LinkedList();
-        
-        // PUT THE REGION ITSELF
-        path.add(region);
-
-        // AND NOW PUT ALL ITS ANCESTORS IN ORDER
-        Region regionToAdd = region.getParentRegion();
-        while (regionToAdd != null)
-        {
-            // PREPEND THE TO THE FRONT OF THE LIST
-            path.addFirst(regionToAdd);
-            regionToAdd = regionToAdd.getParentRegion();
-        }
-        // AND RETURN THE PATH
-        return path;
+        // THE REGION REMEMBERS ITS OWN PATH, SO THERE'S NO NEED
+        // TO WALK UP THE TREE
+        return new LinkedList<>(region.getPathFromRoot());
     }
     
     /**
@@ -114,20 +266,13 @@ public class WorldDataManager
      */    
     public LinkedList<Region> getPathToRoot(Region region)
     {
-        // WE'LL PUT ALL THE REGIONS IN THE PATH HERE
+        // IT'S THE REGION'S OWN PATH BACKWARDS
+        List<Region> pathFromRoot = region.getPathFromRoot();
         LinkedList<Region> path = new LinkedList();
-
-        // PUT THE REGION ITSELF
-        path.add(region);
-        
-        Region regionToAdd = region.getParentRegion();
-        while (regionToAdd != null)
+        for (Region regionToAdd : pathFromRoot)
         {
-            // APPEND THE TO THE END OF THE LIST
-            path.addLast(regionToAdd);
-            regionToAdd = regionToAdd.getParentRegion();
+            path.addFirst(regionToAdd);
         }
-        // AND RETURN THE PATH
         return path;
     }
 
@@ -139,7 +284,7 @@ public class WorldDataManager
      * 
      * @return true if testRegion is in the current world, false otherwise.
      */
-    public boolean hasRegion(Region testRegion)
+    public synchronized boolean hasRegion(Region testRegion)
     {
         return (allRegions.containsKey(testRegion.getName()));
     }
@@ -152,15 +297,27 @@ public class WorldDataManager
      * @param initRoot The region that will become the root of the world.
      * All other regions will be descendant regions of this region.
      */
-    public void setRoot(Region initRoot)
+    public synchronized void setRoot(Region initRoot)
     {
         // PUT THE ROOT IN THE LIST WITH ALL THE OTHER REGIONS
-        allRegions.put(initRoot.getName(), initRoot);
+        addRegion(initRoot);
+        indexRegion(initRoot);
         
         // AND MAKE IT THE ROOT
         world = initRoot;
     }
 
+    /**
+     * Accessor method for getting the file reader/writer, so that other
+     * worlds may be loaded the same way this one was.
+     * 
+     * @return The XML region file reader/writer object.
+     */
+    public WorldImporterExporter getWorldImporterExporter()
+    {
+        return worldImporterExporter;
+    }
+    
     /**
      * Mutator method for setting the file reader/writer. Note that
      * WorldImporterExporter is an interface, so a concrete 
@@ -174,6 +331,46 @@ public class WorldDataManager
         worldImporterExporter = wie;
     }
     
+    /**
+     * Accessor method for getting the compact store levels are made from.
+     * 
+     * @return The store, or null if levels are always read from files.
+     */
+    public synchronized RegionStore getRegionStore()
+    {
+        return regionStore;
+    }
+    
+    /**
+     * Mutator method for setting the compact store levels are made from.
+     * Levels the store doesn't have are still read from their files.
+     * 
+     * @param initRegionStore The store, whose root must be named after
+     * the directory of the root's data file, or null to only use files.
+     */
+    public synchronized void setRegionStore(RegionStore initRegionStore)
+    {
+        regionStore = initRegionStore;
+    }
+    
+    /**
+     * Mutator method for setting the most levels we'll keep for certain,
+     * any beyond that are detached from the tree, least recently used
+     * first.
+     * 
+     * @param initMaxHotLevels The most levels to keep, at least 1.
+     */
+    public synchronized void setMaxHotLevels(int initMaxHotLevels)
+    {
+        maxHotLevels = Math.max(1, initMaxHotLevels);
+        Iterator<Level> it = hotLevels.values().iterator();
+        while (hotLevels.size() > maxHotLevels)
+        {
+            coolLevel(it.next());
+            it.remove();
+        }
+    }
+    
     // ADDITIONAL SERVICE METHODS
     
     /**
@@ -182,9 +379,9 @@ public class WorldDataManager
      * 
      * @param regionToAdd The node to add to this world.
      */
-    public void addRegion(Region regionToAdd, Region parentRegion)
+    public synchronized void addRegion(Region regionToAdd, Region parentRegion)
     {
-        allRegions.put(regionToAdd.getId(), regionToAdd);
+        addRegion(regionToAdd);
         if (parentRegion != null)
         {
             parentRegion.addSubRegion(regionToAdd);
@@ -195,33 +392,43 @@ public class WorldDataManager
     /**
      * Adds a region to this world to the list of all regions, but does
      * not add it to the world. That must be done by hooking up the
-     * parent and child nodes separately.
+     * parent and child nodes separately. Note that it can be found by
+     * name right away.
      * 
      * @param regionToAdd Region to add to the list of all regions.
      */
-    public void addRegion(Region regionToAdd)
+    public synchronized void addRegion(Region regionToAdd)
     {
         allRegions.put(regionToAdd.getName(), regionToAdd);
+        currentRegionsByName.put(regionToAdd.getName(), regionToAdd);
+        indexRegion(regionToAdd);
     }
   
     /**
      * Removes all of the regions from the world.
      */
-    public void clearRegions()
+    public synchronized void clearRegions()
     {
         allRegions.clear();
+        currentRegionsByName.clear();
     }
  
     /**
      * Removes the regionToRemove argument from this world. Note that
      * this method removes the region from the list of all regions
-     * and decouples it from its parent region.
+     * and decouples it from its parent region, and that neither it nor
+     * any of the regions under it can be found by name afterwards.
      * 
      * @param regionToRemove Region to remove from the world.
      */    
-    public void removeRegion(Region regionToRemove)
+    public synchronized void removeRegion(Region regionToRemove)
     {
-        allRegions.remove(regionToRemove.getId());
+        if (allRegions.get(regionToRemove.getName()) == regionToRemove)
+        {
+            allRegions.remove(regionToRemove.getName());
+            currentRegionsByName.remove(regionToRemove.getName());
+        }
+        unindexSubtree(regionToRemove);
         Region parentOfRegionToRemove = regionToRemove.getParentRegion();
         if (parentOfRegionToRemove != null)
         {
@@ -235,30 +442,80 @@ public class WorldDataManager
      * 
      * @param worldName The name of the new empty world we are resetting to.
      */
-    public void reset(String worldName)
+    public synchronized void reset(String worldName)
     {
         // GET RID OF ALL REGIONS0
-        allRegions.clear();
+        clearRegions();
+        regionsByName.clear();
+        hotLevels.clear();
+        coldLevels.clear();
+        worldDir = null;
         
         // AND NOW MAKE OUR ROOT WORLD REGION
-        world = new Region(worldName, worldName, RegionType.WORLD);
-        allRegions.put(worldName, world); 
+        setRoot(new Region(worldName, worldName, RegionType.WORLD));
     }    
  
     // FILE READING/WRITING METHODS - NOTE THAT THESE FUNCTION 
     // IMPLEMENTATIONS WOULD BE PROVIDED BY THE IMPORT/EXPORT PLUGIN
 
     /**
-     * Loads the contents of fileToLoad into this world.
+     * Loads the contents of fileToLoad into this world, making its sub
+     * regions the current ones. Note that the file is only read if its
+     * level isn't already in the tree.
      * 
      * @param fileToLoad XML file that describes a world.
      * 
      * @return true if the world loaded successfully, false otherwise.
      */
-    public boolean load(File fileToLoad)
+    public synchronized boolean load(File fileToLoad)
     {
-        return worldImporterExporter.loadWorld(fileToLoad, this);
+        Level level = getLevel(fileToLoad);
+        clearRegions();
+        for (Region region : level.subRegions)
+        {
+            addRegion(region);
+        }
+        return level.loaded;
     } 
+    
+    /**
+     * Puts a hierarchy that's already been fully loaded in place of the
+     * tree, with every region that has sub regions becoming a level, so
+     * that no files need to be read afterwards. Note that all the levels
+     * are kept for certain, which may be changed with setMaxHotLevels.
+     * 
+     * @param root The root of the loaded hierarchy.
+     * 
+     * @param rootDir The directory with the root's data file, such that
+     * each region's sub regions came from the data file in the directory
+     * named after the region.
+     */
+    public synchronized void preload(Region root, File rootDir)
+    {
+        clearRegions();
+        regionsByName.clear();
+        hotLevels.clear();
+        coldLevels.clear();
+        maxHotLevels = Integer.MAX_VALUE;
+        world = root;
+        worldDir = rootDir.getAbsoluteFile().toPath().normalize().toFile();
+        indexRegion(world);
+        preloadLevels(world, worldDir);
+    }
+    
+    /**
+     * Makes sure the level listed in dataFile is in the tree, reading
+     * it and the levels above it if need be, but without changing the
+     * current regions.
+     * 
+     * @param dataFile XML file listing a region's sub regions.
+     * 
+     * @return The region whose sub regions are listed in dataFile.
+     */
+    public synchronized Region loadLevel(File dataFile)
+    {
+        return getLevel(dataFile).owner;
+    }
 
     /**
      * Saves the current world to the fileToSave file.
@@ -271,4 +528,233 @@ public class WorldDataManager
     {
         return worldImporterExporter.saveWorld(fileToSave, this);
     }
+    
+    // LEVEL HELPER METHODS, NOTE THAT THEY MUST ONLY BE CALLED WHILE
+    // SYNCHRONIZED ON THIS WORLD
+    
+    // GETS THE LEVEL LISTED IN dataFile, READING IT IF WE DON'T HAVE IT
+    // AND PUTTING IT BACK INTO THE TREE IF IT HAD BEEN DETACHED
+    private Level getLevel(File dataFile)
+    {
+        File file = dataFile.getAbsoluteFile().toPath().normalize().toFile();
+        String key = file.getPath();
+        Level level = hotLevels.get(key);
+        if (level != null)
+        {
+            levelHits++;
+            return level;
+        }
+        
+        SoftReference<Level> ref = coldLevels.remove(key);
+        level = (ref == null) ? null : ref.get();
+        if (level == null)
+        {
+            level = makeStoredLevel(file);
+        }
+        if (level == null)
+        {
+            level = readLevel(file);
+        }
+        else
+        {
+            levelHits++;
+        }
+        level.key = key;
+        attachLevel(level, file);
+        hotLevels.put(key, level);
+        return level;
+    }
+    
+    // READS THE SUB REGIONS LISTED IN dataFile, WHICH IS DONE IN A
+    // WORLD OF ITS OWN SO THE IMPORTER DOESN'T TOUCH OUR REGIONS
+    private Level readLevel(File dataFile)
+    {
+        WorldDataManager levelWorld = new WorldDataManager();
+        levelWorld.setWorldImporterExporter(worldImporterExporter);
+        boolean loaded = worldImporterExporter.loadWorld(dataFile, levelWorld);
+        levelReads++;
+        return new Level(levelWorld.getAllRegions().values(), loaded);
+    }
+    
+    // MAKES THE LEVEL LISTED IN dataFile FROM THE STORE, RETURNING null
+    // IF THERE IS NO STORE OR IT DOESN'T HAVE THE LEVEL
+    private Level makeStoredLevel(File dataFile)
+    {
+        if ((regionStore == null) || (regionStore.size() == 0))
+        {
+            return null;
+        }
+        
+        // THE STORE FINDS REGIONS BY THE NAMES FROM ITS ROOT DOWN, WHICH
+        // ARE THE NAMES OF THE DIRECTORIES THE FILE IS IN
+        String rootName = regionStore.getName(0);
+        LinkedList<String> path = new LinkedList<>();
+        File dir = dataFile.getParentFile();
+        while ((dir != null) && !dir.getName().equals(rootName))
+        {
+            path.addFirst(dir.getName());
+            dir = dir.getParentFile();
+        }
+        if (dir == null)
+        {
+            return null;
+        }
+        path.addFirst(rootName);
+        int region = regionStore.find(path);
+        if ((region == RegionStore.NONE) || (regionStore.getFirstChild(region) == RegionStore.NONE))
+        {
+            return null;
+        }
+        return new Level(regionStore.makeSubRegions(region), true);
+    }
+    
+    // MAKES A LEVEL OF THE SUB REGIONS OF region, WHICH ARE ALREADY
+    // HOOKED UP, AND THEN DOES THE SAME FOR EACH OF THEM
+    private void preloadLevels(Region region, File dir)
+    {
+        if (!region.hasSubRegions())
+        {
+            return;
+        }
+        ArrayList<Region> subRegions = new ArrayList<>();
+        Iterator<Region> it = region.getSubRegions();
+        while (it.hasNext())
+        {
+            subRegions.add(it.next());
+        }
+        Level level = new Level(subRegions, true);
+        level.key = new File(dir, dir.getName() + DATA_FILE_SUFFIX).getPath();
+        level.owner = region;
+        hotLevels.put(level.key, level);
+        for (Region subRegion : subRegions)
+        {
+            indexRegion(subRegion);
+            preloadLevels(subRegion, new File(dir, subRegion.getName()));
+        }
+    }
+    
+    // PUTS THE LEVEL'S SUB REGIONS UNDER THE REGION THEY BELONG TO,
+    // WHICH MAY NOT BE THE SAME ONE AS BEFORE IF THE LEVEL ABOVE WAS
+    // READ AGAIN
+    private void attachLevel(Level level, File dataFile)
+    {
+        Region owner = findOwner(dataFile);
+        if (owner == null)
+        {
+            owner = level.owner;
+        }
+        if (owner == null)
+        {
+            owner = new Region(dataFile.getParentFile().getName(), 0, 0, 0);
+        }
+        level.owner = owner;
+        for (Region subRegion : level.subRegions)
+        {
+            subRegion.setParentRegion(owner);
+            indexRegion(subRegion);
+        }
+        owner.removeAllSubRegions();
+        owner.addSubRegions(level.subRegions);
+    }
+    
+    // FINDS THE REGION WHOSE SUB REGIONS ARE LISTED IN dataFile BY
+    // LOOKING FOR IT IN THE LEVEL ABOVE, IF THERE IS NO LEVEL ABOVE IT'S
+    // THE ROOT. NOTE THAT THIS RETURNS null IF THE LEVEL ABOVE DOESN'T
+    // LIST IT
+    private Region findOwner(File dataFile)
+    {
+        File dir = dataFile.getParentFile();
+        File parentDir = dir.getParentFile();
+        File parentDataFile = (parentDir == null) ? null
+                : new File(parentDir, parentDir.getName() + DATA_FILE_SUFFIX);
+        if ((parentDataFile != null) && parentDataFile.exists())
+        {
+            return getLevel(parentDataFile).owner.getSubRegion(dir.getName());
+        }
+        if ((world == null) || !dir.equals(worldDir))
+        {
+            world = new Region(dir.getName(), 0, 0, 0);
+            worldDir = dir;
+            indexRegion(world);
+        }
+        return world;
+    }
+    
+    // DETACHES THE LEVEL FROM THE TREE, SO THAT ONCE IT'S NO LONGER
+    // USED ELSEWHERE THE GARBAGE COLLECTOR MAY TAKE IT BACK
+    private void coolLevel(Level level)
+    {
+        if (level.owner != null)
+        {
+            level.owner.removeAllSubRegions();
+        }
+        for (Region subRegion : level.subRegions)
+        {
+            unindexRegion(subRegion);
+        }
+        coldLevels.put(level.key, new SoftReference<>(level));
+    }
+    
+    // ADDS THE REGION TO THE INDEX OF THE WHOLE TREE
+    private void indexRegion(Region region)
+    {
+        ArrayList<Region> regions = regionsByName.get(region.getName());
+        if (regions == null)
+        {
+            regions = new ArrayList<>(1);
+            regionsByName.put(region.getName(), regions);
+        }
+        regions.removeIf(r -> r == region);
+        regions.add(region);
+    }
+    
+    // TAKES THE REGION OUT OF THE INDEX OF THE WHOLE TREE
+    private void unindexRegion(Region region)
+    {
+        ArrayList<Region> regions = regionsByName.get(region.getName());
+        if (regions != null)
+        {
+            regions.removeIf(r -> r == region);
+            if (regions.isEmpty())
+            {
+                regionsByName.remove(region.getName());
+            }
+        }
+    }
+    
+    // TAKES THE REGION AND EVERYTHING UNDER IT OUT OF THE INDEX
+    private void unindexSubtree(Region region)
+    {
+        unindexRegion(region);
+        Iterator<Region> it = region.getSubRegions();
+        while (it.hasNext())
+        {
+            unindexSubtree(it.next());
+        }
+    }
+    
+    /**
+     * A Level is all the sub regions listed in one region's data file.
+     */
+    private static class Level
+    {
+        // THE DATA FILE'S PATH, WHICH IS HOW WE FIND THE LEVEL
+        private String key;
+        
+        // THE REGION THE SUB REGIONS BELONG TO
+        private Region owner;
+        
+        // ITS SUB REGIONS, SORTED BY NAME
+        private ArrayList<Region> subRegions;
+        
+        // FALSE IF THE IMPORTER HAD TROUBLE WITH THE FILE
+        private boolean loaded;
+        
+        private Level(Collection<Region> initSubRegions, boolean initLoaded)
+        {
+            subRegions = new ArrayList<>(initSubRegions);
+            Collections.sort(subRegions);
+            loaded = initLoaded;
+        }
+    }
 }
\ No newline at end of file
@@ -205,7 +205,9 @@ public class WorldIO implements WorldImporterExporter
      * 
      * @return true if the file is successfully saved, false otherwise. It's
      * possible that another program could lock out ours from writing to it,
-     * so we need to let the caller know when this happens.
+     * so we need to let the caller know when this happens. Note that the
+     * whole document is built in memory first, WorldStreamIO writes
+     * region data files without doing so.
      */
     public boolean saveWorld(File worldFile, WorldDataManager worldToSave)
     {
@@ -232,11 +234,7 @@ public class WorldIO implements WorldImporterExporter
                 Element regionNodeElement = makeElement(doc, regionsListElement,
                         REGION_NODE, "");
                 
-                // NOW LET'S FILL IN THE REGION'S DATA. FIRST MAKE THE ATTRIBUTES
-                doc.createAttribute(ID_ATTRIBUTE); 
-                doc.createAttribute(NAME_ATTRIBUTE);
-                doc.createAttribute(TYPE_ATTRIBUTE);
-                doc.createAttribute(CAPITAL_ATTRIBUTE);
+                // NOW LET'S FILL IN THE REGION'S DATA
                 regionNodeElement.setAttribute(ID_ATTRIBUTE, region.getId());
                 regionNodeElement.setAttribute(NAME_ATTRIBUTE, region.getName());
                 regionNodeElement.setAttribute(TYPE_ATTRIBUTE, region.getType().toString());
@@ -0,0 +1,464 @@
+package world_io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import world_data.Region;
+import world_data.RegionStore;
+import world_data.StringTable;
+import world_data.WorldDataManager;
+import world_data.WorldImporterExporter;
+
+/**
+ * This class serves as a plugin for reading and writing a whole region
+ * hierarchy as a single binary snapshot file. Where the XML files each
+ * describe one region's sub regions, a snapshot holds every region in the
+ * tree, along with its color, capital, leader, and parent, so the whole
+ * world can be loaded from one file without any XML parsing or schema
+ * validation. All names are stored once in a string table.
+ *
+ * A snapshot also records the modification time of every XML file it was
+ * made from, so that isStale can tell when it needs to be made again.
+ *
+ * The file is laid out as follows, all big-endian:
+ *      int MAGIC, int VERSION,
+ *      int number of sources, then for each: UTF relative path, long time
+ *      int number of strings, then for each: UTF string
+ *      int number of regions, then for each in preorder: int name string,
+ *          int packed RGB, int capital string, int leader string,
+ *          int parent region (NONE for the root)
+ *
+ * @author  Richard McKenna
+ *          Debugging Enterprises
+ * @version 1.0
+ */
+public class WorldSnapshotIO implements WorldImporterExporter
+{
+    // THESE IDENTIFY OUR FILES AND THEIR FORMAT
+    public static final int MAGIC = 0x52565753;
+    public static final int VERSION = 1;
+
+    // USED FOR MISSING STRINGS AND THE ROOT'S PARENT
+    public static final int NONE = -1;
+
+    // EACH REGION'S DATA IS IN A FILE NAMED LIKE THIS IN ITS OWN DIRECTORY
+    public static final String DATA_FILE_SUFFIX = " Data.xml";
+
+    /**
+     * Default Constructor, no data needs to be initialized.
+     */
+    public WorldSnapshotIO() {}
+
+    /**
+     * Reads the whole region hierarchy in snapshotFile into worldToLoad.
+     * Like loading the root's XML file, the root's sub regions become the
+     * regions of worldToLoad, but each of them comes with all of its
+     * descendants already attached.
+     *
+     * @param snapshotFile The snapshot file to load the data from.
+     *
+     * @param worldToLoad The world to fill with the data from the file.
+     *
+     * @return true if the world loads successfully, false otherwise.
+     */
+    @Override
+    public boolean loadWorld(File snapshotFile, WorldDataManager worldToLoad)
+    {
+        try
+        {
+            Region root = readSnapshot(snapshotFile);
+            if (root == null)
+            {
+                return false;
+            }
+            worldToLoad.clearRegions();
+            Iterator<Region> it = root.getSubRegions();
+            while (it.hasNext())
+            {
+                worldToLoad.addRegion(it.next());
+            }
+            return true;
+        }
+        catch(IOException | RuntimeException e)
+        {
+            // WORLD DIDN'T LOAD PROPERLY
+            return false;
+        }
+    }
+
+    /**
+     * Saves the whole hierarchy of worldToSave into worldFile as a
+     * snapshot. Note that such a snapshot has no sources, so it never
+     * looks stale.
+     *
+     * @param worldFile The file to write the snapshot to.
+     *
+     * @param worldToSave The world whose regions will be saved.
+     *
+     * @return true if the snapshot is successfully saved, false otherwise.
+     */
+    @Override
+    public boolean saveWorld(File worldFile, WorldDataManager worldToSave)
+    {
+        // FIND THE ROOT, IF THERE ISN'T ONE THE REGIONS OF THE WORLD
+        // WILL BE SAVED AS THE CHILDREN OF AN UNNAMED ONE
+        Region root = worldToSave.getWorld();
+        if ((root == null) && !worldToSave.getAllRegions().isEmpty())
+        {
+            root = worldToSave.getAllRegions().firstEntry().getValue().getParentRegion();
+        }
+        ArrayList<Region> regions = new ArrayList<>();
+        if (root == null)
+        {
+            regions.add(new Region("", 0, 0, 0));
+            for (Region region : worldToSave.getAllRegions().values())
+            {
+                addInPreorder(region, regions);
+            }
+        }
+        else
+        {
+            addInPreorder(root, regions);
+        }
+        try
+        {
+            writeSnapshot(regions, new LinkedHashMap<>(), worldFile);
+            return true;
+        }
+        catch(IOException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a snapshot file, building its whole region hierarchy.
+     *
+     * @param snapshotFile The snapshot file to read.
+     *
+     * @return The root of the hierarchy, or null if the file isn't a
+     * snapshot this version can read.
+     *
+     * @throws IOException Thrown if the file can't be read.
+     */
+    public static Region readSnapshot(File snapshotFile) throws IOException
+    {
+        RegionStore store = readStore(snapshotFile);
+        if ((store == null) || (store.size() == 0))
+        {
+            return null;
+        }
+
+        // EVERY PARENT COMES BEFORE ITS CHILDREN
+        Region[] regions = new Region[store.size()];
+        for (int i = 0; i < regions.length; i++)
+        {
+            Region region = store.makeRegion(i);
+            int parent = store.getParent(i);
+            if (parent != NONE)
+            {
+                regions[parent].addSubRegion(region);
+                region.setParentRegion(regions[parent]);
+            }
+            regions[i] = region;
+        }
+        return regions[0];
+    }
+
+    /**
+     * Reads a snapshot file into a compact store rather than building
+     * Regions, which is much smaller for large hierarchies.
+     *
+     * @param snapshotFile The snapshot file to read.
+     *
+     * @return The store, with the root in slot 0, or null if the file
+     * isn't a snapshot this version can read.
+     *
+     * @throws IOException Thrown if the file can't be read.
+     */
+    public static RegionStore readStore(File snapshotFile) throws IOException
+    {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(snapshotFile.toPath())));
+        if (readSources(in) == null)
+        {
+            return null;
+        }
+
+        // THE STRING TABLE
+        String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++)
+        {
+            strings[i] = in.readUTF();
+        }
+
+        // AND THE REGIONS, EVERY PARENT COMES BEFORE ITS CHILDREN SO
+        // A REGION'S SLOT IS ITS POSITION IN THE FILE
+        int numRegions = in.readInt();
+        RegionStore store = new RegionStore(new StringTable(), numRegions);
+        for (int i = 0; i < numRegions; i++)
+        {
+            int name = in.readInt();
+            int rgb = in.readInt();
+            int capital = in.readInt();
+            int leader = in.readInt();
+            int parent = in.readInt();
+            store.add(strings[name], rgb,
+                      (capital == NONE) ? null : strings[capital],
+                      (leader == NONE) ? null : strings[leader],
+                      parent);
+        }
+        return store;
+    }
+
+    /**
+     * Makes a snapshot of all the region data under dataDir. The root
+     * region is named after dataDir, and its sub regions are those in
+     * dataDir's own data file. Any sub region with a directory of its own
+     * containing a data file gets its sub regions from there, and so on.
+     *
+     * @param dataDir The directory at the top of the hierarchy, for example
+     * data/The World, which contains The World Data.xml.
+     *
+     * @param snapshotFile The file to write the snapshot to.
+     *
+     * @param xmlImporter The importer used to read each data file.
+     *
+     * @throws IOException Thrown if the snapshot can't be written.
+     */
+    public static void writeSnapshot(File dataDir, File snapshotFile, WorldImporterExporter xmlImporter)
+            throws IOException
+    {
+        LinkedHashMap<String, Long> sources = new LinkedHashMap<>();
+        Region root = new Region(dataDir.getName(), 0, 0, 0);
+        loadTree(dataDir, dataDir, root, xmlImporter, sources);
+        ArrayList<Region> regions = new ArrayList<>();
+        addInPreorder(root, regions);
+        writeSnapshot(regions, sources, snapshotFile);
+    }
+
+    /**
+     * Tests to see if a snapshot no longer matches the XML files under
+     * dataDir, meaning one of the files it was made from has been changed
+     * or removed, or a new one has been added.
+     *
+     * @param snapshotFile The snapshot to test.
+     *
+     * @param dataDir The directory the snapshot was made from.
+     *
+     * @return true if the snapshot must be made again, which includes the
+     * case where it doesn't exist or can't be read.
+     */
+    public static boolean isStale(File snapshotFile, File dataDir)
+    {
+        HashMap<String, Long> sources;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(snapshotFile)))
+        {
+            sources = readSources(in);
+        }
+        catch(IOException e)
+        {
+            return true;
+        }
+        if (sources == null)
+        {
+            return true;
+        }
+
+        // HAS ANY SOURCE BEEN CHANGED OR REMOVED?
+        for (String source : sources.keySet())
+        {
+            File sourceFile = new File(dataDir, source);
+            if (sourceFile.lastModified() != sources.get(source))
+            {
+                return true;
+            }
+        }
+
+        // HAS ANY BEEN ADDED?
+        return hasNewDataFiles(dataDir, dataDir, sources);
+    }
+
+    /**
+     * Regenerates the snapshot of a directory of region data.
+     *
+     * @param args The data directory, the snapshot file, and the schema
+     * to validate the XML files against.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 3)
+        {
+            System.out.println("Usage: WorldSnapshotIO <data directory> <snapshot file> <schema file>");
+            return;
+        }
+        File dataDir = new File(args[0]);
+        File snapshotFile = new File(args[1]);
+        long startTime = System.currentTimeMillis();
+        writeSnapshot(dataDir, snapshotFile, new WorldStreamIO(new File(args[2])));
+        System.out.println("Wrote " + snapshotFile + " in " + (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    /**
+     * Private helper method for loading the sub regions in dir's data file
+     * into parent, and then doing the same for each of them.
+     */
+    private static void loadTree(File dataDir, File dir, Region parent,
+            WorldImporterExporter xmlImporter, LinkedHashMap<String, Long> sources)
+    {
+        File dataFile = new File(dir, dir.getName() + DATA_FILE_SUFFIX);
+        if (!dataFile.exists())
+        {
+            return;
+        }
+        sources.put(relativePath(dataDir, dataFile), dataFile.lastModified());
+
+        // READ JUST THIS FILE INTO A WORLD OF ITS OWN, LOADING IT THROUGH
+        // THE WORLD WOULD READ THE FILES OF ALL THE LEVELS ABOVE IT AGAIN
+        WorldDataManager level = new WorldDataManager();
+        level.setWorldImporterExporter(xmlImporter);
+        xmlImporter.loadWorld(dataFile, level);
+        for (Region region : level.getAllRegions().values())
+        {
+            parent.addSubRegion(region);
+            region.setParentRegion(parent);
+            loadTree(dataDir, new File(dir, region.getName()), region, xmlImporter, sources);
+        }
+    }
+
+    /**
+     * Private helper method for writing a list of regions in preorder.
+     */
+    private static void writeSnapshot(ArrayList<Region> regions, LinkedHashMap<String, Long> sources, File snapshotFile)
+            throws IOException
+    {
+        // EVERY STRING GOES IN THE TABLE ONCE
+        LinkedHashMap<String, Integer> strings = new LinkedHashMap<>();
+        IdentityHashMap<Region, Integer> indices = new IdentityHashMap<>();
+        for (int i = 0; i < regions.size(); i++)
+        {
+            Region region = regions.get(i);
+            indices.put(region, i);
+            addString(region.getName(), strings);
+            addString(region.getCapital(), strings);
+            addString(region.getLeader(), strings);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(snapshotFile))))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sources.size());
+            for (String source : sources.keySet())
+            {
+                out.writeUTF(source);
+                out.writeLong(sources.get(source));
+            }
+            out.writeInt(strings.size());
+            for (String string : strings.keySet())
+            {
+                out.writeUTF(string);
+            }
+            out.writeInt(regions.size());
+            for (int i = 0; i < regions.size(); i++)
+            {
+                // NOTE THAT REGIONS WHOSE PARENT ISN'T BEING WRITTEN
+                // BECOME CHILDREN OF THE ROOT
+                Region region = regions.get(i);
+                Integer parent = indices.get(region.getParentRegion());
+                if ((parent == null) && (i > 0))
+                {
+                    parent = 0;
+                }
+                out.writeInt(strings.get(region.getName()));
+                out.writeInt(region.getRGB());
+                out.writeInt(indexOf(region.getCapital(), strings));
+                out.writeInt(indexOf(region.getLeader(), strings));
+                out.writeInt((parent == null) ? NONE : parent);
+            }
+        }
+    }
+
+    /**
+     * Private helper method for reading the header and sources of a
+     * snapshot, it returns null if it's not a snapshot we can read.
+     */
+    private static HashMap<String, Long> readSources(DataInputStream in) throws IOException
+    {
+        if ((in.readInt() != MAGIC) || (in.readInt() != VERSION))
+        {
+            return null;
+        }
+        HashMap<String, Long> sources = new HashMap<>();
+        int numSources = in.readInt();
+        for (int i = 0; i < numSources; i++)
+        {
+            String source = in.readUTF();
+            sources.put(source, in.readLong());
+        }
+        return sources;
+    }
+
+    /**
+     * Private helper method for finding a data file under dir that isn't
+     * one of the sources.
+     */
+    private static boolean hasNewDataFiles(File dataDir, File dir, HashMap<String, Long> sources)
+    {
+        File dataFile = new File(dir, dir.getName() + DATA_FILE_SUFFIX);
+        if (dataFile.exists() && !sources.containsKey(relativePath(dataDir, dataFile)))
+        {
+            return true;
+        }
+        File[] children = dir.listFiles();
+        if (children != null)
+        {
+            for (File child : children)
+            {
+                if (child.isDirectory() && hasNewDataFiles(dataDir, child, sources))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void addInPreorder(Region region, ArrayList<Region> regions)
+    {
+        regions.add(region);
+        Iterator<Region> it = region.getSubRegions();
+        while (it.hasNext())
+        {
+            addInPreorder(it.next(), regions);
+        }
+    }
+
+    private static void addString(String string, LinkedHashMap<String, Integer> strings)
+    {
+        if ((string != null) && !strings.containsKey(string))
+        {
+            strings.put(string, strings.size());
+        }
+    }
+
+    private static int indexOf(String string, LinkedHashMap<String, Integer> strings)
+    {
+        return (string == null) ? NONE : strings.get(string);
+    }
+
+    private static String relativePath(File dataDir, File file)
+    {
+        return dataDir.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+    }
+}
@@ -0,0 +1,465 @@
+package world_io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.stax.StAXResult;
+import javax.xml.transform.stax.StAXSource;
+import world_data.Region;
+import world_data.WorldDataManager;
+import world_data.WorldImporterExporter;
+import static world_io.WorldIOSettings.*;
+import xml_utilities.XMLUtilities;
+
+/**
+ * This class serves as a plugin for reading worlds from region data XML
+ * files in a single forward pass using a StAX stream reader. Unlike
+ * WorldIO it never builds a DOM, each sub region element is turned into
+ * a Region as soon as it's read. The file may optionally be validated
+ * against the schema, which is done in the same pass, the validator reads
+ * the file and hands each element on to us as it goes, so every file is
+ * only ever read once. Note that the world's regions are only replaced
+ * once the whole file has been read without trouble.
+ *
+ * Saving is streamed too, each region is written out as soon as it's
+ * reached, so memory use doesn't grow with the size of the world. Files
+ * are written in the same format they're read in, and saveTree writes
+ * a whole hierarchy as one data file per region directory, optionally
+ * writing the subtrees in parallel.
+ *
+ * @author  Richard McKenna
+ *          Debugging Enterprises
+ * @version 1.0
+ */
+public class WorldStreamIO implements WorldImporterExporter
+{
+    // THE NAME OF THE LEADER ATTRIBUTE, WHICH WorldIOSettings DOESN'T HAVE
+    public static final String LEADER_ATTRIBUTE = "leader";
+
+    // WHAT WE WRITE FILES IN
+    public static final String ENCODING = "UTF-8";
+
+    // EACH REGION'S DATA IS IN A FILE NAMED LIKE THIS IN ITS OWN DIRECTORY
+    public static final String DATA_FILE_SUFFIX = WorldDataManager.DATA_FILE_SUFFIX;
+
+    // STREAM READERS ARE ALL MADE BY THIS ONE FACTORY, WHICH IS SAFE
+    // TO SHARE ONCE IT'S BEEN CONFIGURED
+    private static final XMLInputFactory INPUT_FACTORY = makeInputFactory();
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    // THIS WILL HELP US VALIDATE THE XML FILES
+    private XMLUtilities xmlUtil;
+
+    // THIS IS THE SCHEMA WE'LL USE
+    private File worldSchema;
+
+    // IF FALSE WE WON'T BOTHER VALIDATING
+    private boolean validating;
+
+    /**
+     * Constructor for making our importer. Note that files will be
+     * validated against initWorldSchema unless it's null.
+     */
+    public WorldStreamIO(File initWorldSchema)
+    {
+        xmlUtil = new XMLUtilities();
+        worldSchema = initWorldSchema;
+        validating = (worldSchema != null);
+    }
+
+    /**
+     * Mutator method for turning schema validation on or off. Note that
+     * validation can't be turned on if there is no schema.
+     */
+    public void setValidating(boolean initValidating)
+    {
+        validating = initValidating && (worldSchema != null);
+    }
+
+    /**
+     * Accessor method for testing whether files are validated before
+     * they're loaded.
+     */
+    public boolean isValidating()
+    {
+        return validating;
+    }
+
+    /**
+     * Reads the geographic data found in regionsFile into worldToLoad.
+     * All of worldToLoad's regions are replaced by the sub regions
+     * listed in the file.
+     *
+     * @param regionsFile The XML file to load the data from.
+     *
+     * @param worldToLoad The world to fill with the data from the
+     * XML file.
+     *
+     * @return true if the world loads successfully, false otherwise.
+     */
+    @Override
+    public boolean loadWorld(File regionsFile, WorldDataManager worldToLoad)
+    {
+        ArrayList<Region> subRegions = new ArrayList<>();
+        XMLStreamReader reader = null;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(regionsFile)))
+        {
+            reader = INPUT_FACTORY.createXMLStreamReader(in);
+            if (validating)
+            {
+                // THE VALIDATOR DOES THE READING, HANDING US EVERYTHING
+                // AS IT GOES, SO THE FILE IS CHECKED WHILE IT'S LOADED
+                if (!xmlUtil.validateXMLDoc(new StAXSource(reader),
+                                            new StAXResult(new SubRegionCollector(subRegions)),
+                                            worldSchema.getAbsolutePath()))
+                {
+                    return false;
+                }
+            }
+            else
+            {
+                // ADD EACH SUB REGION AS WE COME TO IT
+                while (reader.hasNext())
+                {
+                    if ((reader.next() == XMLStreamConstants.START_ELEMENT)
+                            && SUB_REGION_NODE.equals(reader.getLocalName()))
+                    {
+                        subRegions.add(readSubRegion(reader));
+                    }
+                }
+            }
+        }
+        catch(XMLStreamException | IOException | RuntimeException e)
+        {
+            // WORLD DIDN'T LOAD PROPERLY
+            return false;
+        }
+        finally
+        {
+            closeQuietly(reader);
+        }
+        
+        // NOW REPLACE THE REGIONS LIST
+        worldToLoad.clearRegions();
+        for (Region region : subRegions)
+        {
+            worldToLoad.addRegion(region);
+        }
+        
+        // WORLD LOADED PROPERLY
+        return true;
+    }
+
+    /**
+     * Saves all the regions of worldToSave to worldFile as the sub regions
+     * of the region they belong to, in the same format they're read in.
+     *
+     * @param worldFile The file to write the regions to.
+     *
+     * @param worldToSave The world whose regions will be saved.
+     *
+     * @return true if the file is successfully saved, false otherwise.
+     */
+    @Override
+    public boolean saveWorld(File worldFile, WorldDataManager worldToSave)
+    {
+        // THE REGION THEY BELONG TO IS THEIR PARENT, IF THEY HAVE ONE,
+        // OTHERWISE WE GO BY THE NAME OF THE FILE
+        String regionName = worldFile.getName();
+        if (regionName.endsWith(DATA_FILE_SUFFIX))
+        {
+            regionName = regionName.substring(0, regionName.length() - DATA_FILE_SUFFIX.length());
+        }
+        if (!worldToSave.getAllRegions().isEmpty())
+        {
+            Region parent = worldToSave.getAllRegions().firstEntry().getValue().getParentRegion();
+            if (parent != null)
+            {
+                regionName = parent.getName();
+            }
+        }
+        try
+        {
+            writeRegionFile(worldFile, regionName, worldToSave.getAllRegions().values().iterator());
+            return true;
+        }
+        catch(XMLStreamException | IOException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Saves a whole hierarchy, writing each region that has sub regions
+     * to a data file of its own in a directory named after it, with the
+     * root's file in rootDir. This is the layout the game and
+     * WorldTreeLoader read.
+     *
+     * @param root The root of the hierarchy to save.
+     *
+     * @param rootDir The directory for the root's data file, which is
+     * made if need be.
+     *
+     * @param parallel If true the subtrees are written at the same time
+     * on all cores, otherwise one file at a time.
+     *
+     * @return true if every file is successfully saved, false otherwise.
+     */
+    public static boolean saveTree(Region root, File rootDir, boolean parallel)
+    {
+        int parallelism = parallel ? Runtime.getRuntime().availableProcessors() : 1;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        AtomicBoolean saved = new AtomicBoolean(true);
+        try
+        {
+            pool.invoke(new SaveTask(root, rootDir, saved));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        return saved.get();
+    }
+
+    /**
+     * Private helper method for making a Region out of the attributes of
+     * the sub region element the reader is currently at.
+     */
+    private Region readSubRegion(XMLStreamReader reader)
+    {
+        String name = reader.getAttributeValue(null, NAME_ATTRIBUTE);
+        String red = reader.getAttributeValue(null, RED_ATTRIBUTE);
+        String green = reader.getAttributeValue(null, GREEN_ATTRIBUTE);
+        String blue = reader.getAttributeValue(null, BLUE_ATTRIBUTE);
+        Region region = new Region(name, red, green, blue);
+
+        // NOTE THAT THE CAPITAL AND LEADER ARE BOTH OPTIONAL
+        region.setCapital(reader.getAttributeValue(null, CAPITAL_ATTRIBUTE));
+        region.setLeader(reader.getAttributeValue(null, LEADER_ATTRIBUTE));
+        return region;
+    }
+
+    /**
+     * Private helper method for making a Region out of the attributes of
+     * a sub region element the validator handed us.
+     */
+    private static Region readSubRegion(StartElement element)
+    {
+        String name = getAttribute(element, NAME_ATTRIBUTE);
+        String red = getAttribute(element, RED_ATTRIBUTE);
+        String green = getAttribute(element, GREEN_ATTRIBUTE);
+        String blue = getAttribute(element, BLUE_ATTRIBUTE);
+        Region region = new Region(name, red, green, blue);
+
+        // NOTE THAT THE CAPITAL AND LEADER ARE BOTH OPTIONAL
+        region.setCapital(getAttribute(element, CAPITAL_ATTRIBUTE));
+        region.setLeader(getAttribute(element, LEADER_ATTRIBUTE));
+        return region;
+    }
+
+    // HELPER METHOD FOR GETTING AN ATTRIBUTE'S VALUE, OR null IF THE
+    // ELEMENT DOESN'T HAVE IT
+    private static String getAttribute(StartElement element, String name)
+    {
+        Attribute attribute = element.getAttributeByName(new QName(name));
+        return (attribute == null) ? null : attribute.getValue();
+    }
+
+    // HELPER METHOD FOR WRITING A REGION DATA FILE, WHICH LISTS THE
+    // SUB REGIONS OF THE REGION NAMED regionName
+    private static void writeRegionFile(File file, String regionName, Iterator<Region> subRegions)
+            throws XMLStreamException, IOException
+    {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file)))
+        {
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out, ENCODING);
+            try
+            {
+                writer.writeStartDocument(ENCODING, "1.0");
+                writer.writeCharacters("\n\n");
+                writer.writeStartElement(REGION_NODE);
+                if (regionName != null)
+                {
+                    writer.writeAttribute(NAME_ATTRIBUTE, regionName);
+                }
+                while (subRegions.hasNext())
+                {
+                    writer.writeCharacters("\n  ");
+                    writeSubRegion(writer, subRegions.next());
+                }
+                writer.writeCharacters("\n");
+                writer.writeEndElement();
+                writer.writeEndDocument();
+                writer.flush();
+            }
+            finally
+            {
+                writer.close();
+            }
+        }
+    }
+
+    // HELPER METHOD FOR WRITING ONE SUB REGION ELEMENT, WITH ALL THE
+    // ATTRIBUTES loadWorld READS
+    private static void writeSubRegion(XMLStreamWriter writer, Region region)
+            throws XMLStreamException
+    {
+        writer.writeEmptyElement(SUB_REGION_NODE);
+        writer.writeAttribute(RED_ATTRIBUTE, "" + region.getRed());
+        writer.writeAttribute(GREEN_ATTRIBUTE, "" + region.getGreen());
+        writer.writeAttribute(BLUE_ATTRIBUTE, "" + region.getBlue());
+        writer.writeAttribute(NAME_ATTRIBUTE, region.getName());
+        if (region.getCapital() != null)
+        {
+            writer.writeAttribute(CAPITAL_ATTRIBUTE, region.getCapital());
+        }
+        if (region.getLeader() != null)
+        {
+            writer.writeAttribute(LEADER_ATTRIBUTE, region.getLeader());
+        }
+    }
+
+    /**
+     * A SaveTask writes one region's data file and then forks a task for
+     * each of its sub regions that has sub regions of its own.
+     */
+    private static class SaveTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private Region region;
+        private File dir;
+        private AtomicBoolean saved;
+
+        private SaveTask(Region initRegion, File initDir, AtomicBoolean initSaved)
+        {
+            region = initRegion;
+            dir = initDir;
+            saved = initSaved;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (!region.hasSubRegions())
+            {
+                return;
+            }
+            try
+            {
+                dir.mkdirs();
+                writeRegionFile(new File(dir, dir.getName() + DATA_FILE_SUFFIX),
+                                region.getName(), region.getSubRegions());
+            }
+            catch(XMLStreamException | IOException e)
+            {
+                saved.set(false);
+            }
+            ArrayList<SaveTask> tasks = new ArrayList<>();
+            Iterator<Region> it = region.getSubRegions();
+            while (it.hasNext())
+            {
+                Region subRegion = it.next();
+                if (subRegion.hasSubRegions())
+                {
+                    tasks.add(new SaveTask(subRegion, new File(dir, subRegion.getName()), saved));
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    /**
+     * A SubRegionCollector is where the validator sends a file as it's
+     * validated. It turns each sub region element into a Region as soon
+     * as it arrives and ignores everything else.
+     */
+    private static class SubRegionCollector implements XMLEventWriter
+    {
+        private ArrayList<Region> subRegions;
+
+        private SubRegionCollector(ArrayList<Region> initSubRegions)
+        {
+            subRegions = initSubRegions;
+        }
+
+        @Override
+        public void add(XMLEvent event)
+        {
+            if (event.isStartElement()
+                    && SUB_REGION_NODE.equals(event.asStartElement().getName().getLocalPart()))
+            {
+                subRegions.add(readSubRegion(event.asStartElement()));
+            }
+        }
+
+        @Override
+        public void add(XMLEventReader reader) throws XMLStreamException
+        {
+            while (reader.hasNext())
+            {
+                add(reader.nextEvent());
+            }
+        }
+
+        // NOTHING IS ACTUALLY WRITTEN, SO THERE'S NOTHING TO DO FOR THESE
+
+        @Override public void flush()                                           {}
+        @Override public void close()                                           {}
+        @Override public String getPrefix(String uri)                           { return null; }
+        @Override public void setPrefix(String prefix, String uri)              {}
+        @Override public void setDefaultNamespace(String uri)                   {}
+        @Override public void setNamespaceContext(NamespaceContext context)     {}
+        @Override public NamespaceContext getNamespaceContext()                 { return null; }
+    }
+
+    // HELPER METHOD FOR CLOSING A READER WHEN WE'RE DONE WITH IT
+    private static void closeQuietly(XMLStreamReader reader)
+    {
+        if (reader != null)
+        {
+            try
+            {
+                reader.close();
+            }
+            catch(XMLStreamException e)
+            {
+                // THERE'S NOTHING TO DO ABOUT IT
+            }
+        }
+    }
+
+    // HELPER METHOD FOR SETTING UP THE FACTORY, OUR FILES DON'T
+    // NEED EXTERNAL ENTITIES OR DTDS
+    private static XMLInputFactory makeInputFactory()
+    {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -0,0 +1,244 @@
+package world_io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import world_data.Region;
+import world_data.WorldDataManager;
+import world_data.WorldImporterExporter;
+
+/**
+ * This class loads a whole region hierarchy at once by crawling a data
+ * directory, such as data/The World, with a fork-join pool. Every region
+ * directory's data file is read by its own task, so the files are parsed
+ * and validated on all cores at once, and once a region's sub regions are
+ * known the tasks for their directories are forked. Note that all files
+ * are read through the same importer, so with WorldStreamIO or WorldIO
+ * they're all validated against the same compiled schema.
+ *
+ * How long each file took, and the whole load, is recorded so it can be
+ * reported.
+ *
+ * @author  Richard McKenna
+ *          Debugging Enterprises
+ * @version 1.0
+ */
+public class WorldTreeLoader
+{
+    // EACH REGION'S DATA IS IN A FILE NAMED LIKE THIS IN ITS OWN DIRECTORY
+    public static final String DATA_FILE_SUFFIX = WorldDataManager.DATA_FILE_SUFFIX;
+
+    // THIS READS EACH DATA FILE
+    private WorldImporterExporter importer;
+
+    // THE TASKS RUN HERE
+    private ForkJoinPool pool;
+
+    // HOW LONG EACH FILE TOOK IN NANOSECONDS, BY PATH RELATIVE TO THE
+    // DATA DIRECTORY, AND THE FILES THAT DIDN'T LOAD
+    private ConcurrentHashMap<String, Long> fileTimes;
+    private ConcurrentHashMap<String, Boolean> failedFiles;
+
+    // AND FOR THE WHOLE LOAD
+    private long totalNanos;
+    private AtomicInteger numRegions;
+
+    /**
+     * Constructor for a loader that reads files with initImporter using
+     * all available cores.
+     */
+    public WorldTreeLoader(WorldImporterExporter initImporter)
+    {
+        this(initImporter, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for a loader that reads files with initImporter, at
+     * most parallelism of them at once.
+     */
+    public WorldTreeLoader(WorldImporterExporter initImporter, int parallelism)
+    {
+        importer = initImporter;
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+        fileTimes = new ConcurrentHashMap<>();
+        failedFiles = new ConcurrentHashMap<>();
+        totalNanos = 0;
+        numRegions = new AtomicInteger(0);
+    }
+
+    /**
+     * Loads all the region data under dataDir. The root region is named
+     * after dataDir, and its sub regions are those in dataDir's own data
+     * file. Any sub region with a directory of its own containing a data
+     * file gets its sub regions from there, and so on.
+     *
+     * @param dataDir The directory at the top of the hierarchy, which
+     * contains its own data file.
+     *
+     * @return The root of the fully loaded hierarchy.
+     */
+    public Region loadTree(File dataDir)
+    {
+        fileTimes.clear();
+        failedFiles.clear();
+        numRegions.set(1);
+        long startTime = System.nanoTime();
+        Region root = new Region(dataDir.getName(), 0, 0, 0);
+        pool.invoke(new LoadTask(dataDir, dataDir, root));
+        totalNanos = System.nanoTime() - startTime;
+        return root;
+    }
+
+    /**
+     * Loads all the region data under dataDir and hands it to world,
+     * which will then have every level without reading any more files.
+     *
+     * @param dataDir The directory at the top of the hierarchy.
+     *
+     * @param world The world to preload.
+     *
+     * @return The root of the fully loaded hierarchy.
+     */
+    public Region preload(File dataDir, WorldDataManager world)
+    {
+        Region root = loadTree(dataDir);
+        world.preload(root, dataDir);
+        return root;
+    }
+
+    // ACCESSOR METHODS FOR THE LAST LOAD
+
+    public int      getNumFiles()       { return fileTimes.size();      }
+    public int      getNumFailedFiles() { return failedFiles.size();    }
+    public int      getNumRegions()     { return numRegions.get();      }
+    public long     getTotalNanos()     { return totalNanos;            }
+    public int      getParallelism()    { return pool.getParallelism(); }
+
+    /**
+     * Accessor method for how long each file of the last load took.
+     *
+     * @return Nanoseconds by path relative to the data directory, sorted
+     * by path.
+     */
+    public TreeMap<String, Long> getFileTimes()
+    {
+        return new TreeMap<>(fileTimes);
+    }
+
+    /**
+     * Makes a report of how long each file of the last load took, one per
+     * line, followed by the totals.
+     *
+     * @return The report.
+     */
+    public String getTimingReport()
+    {
+        StringBuilder report = new StringBuilder();
+        long fileNanos = 0;
+        for (Map.Entry<String, Long> entry : getFileTimes().entrySet())
+        {
+            fileNanos += entry.getValue();
+            report.append(String.format("%9.2f ms  %s%s%n", entry.getValue() / 1000000.0, entry.getKey(),
+                    failedFiles.containsKey(entry.getKey()) ? "  (FAILED)" : ""));
+        }
+        report.append(String.format("Loaded %d regions from %d files (%d failed) in %.2f ms, "
+                + "%.2f ms of file time on %d threads%n",
+                getNumRegions(), getNumFiles(), getNumFailedFiles(), totalNanos / 1000000.0,
+                fileNanos / 1000000.0, getParallelism()));
+        return report.toString();
+    }
+
+    /**
+     * Loads a directory of region data and prints the timing report.
+     *
+     * @param args The data directory and the schema to validate the XML
+     * files against.
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 2)
+        {
+            System.out.println("Usage: WorldTreeLoader <data directory> <schema file>");
+            return;
+        }
+        WorldTreeLoader loader = new WorldTreeLoader(new WorldStreamIO(new File(args[1])));
+        loader.loadTree(new File(args[0]));
+        System.out.print(loader.getTimingReport());
+    }
+
+    /**
+     * A LoadTask reads one region directory's data file into its region
+     * and then forks a task for each sub region that has a directory with
+     * a data file of its own.
+     */
+    private class LoadTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private File dataDir;
+        private File dir;
+        private Region region;
+
+        private LoadTask(File initDataDir, File initDir, Region initRegion)
+        {
+            dataDir = initDataDir;
+            dir = initDir;
+            region = initRegion;
+        }
+
+        @Override
+        protected void compute()
+        {
+            File dataFile = new File(dir, dir.getName() + DATA_FILE_SUFFIX);
+            if (!dataFile.exists())
+            {
+                return;
+            }
+
+            // READ THE FILE INTO A WORLD OF ITS OWN, WHICH ONLY THIS
+            // TASK EVER USES
+            long startTime = System.nanoTime();
+            WorldDataManager level = new WorldDataManager();
+            level.setWorldImporterExporter(importer);
+            boolean loaded = importer.loadWorld(dataFile, level);
+            String source = relativePath(dataDir, dataFile);
+            fileTimes.put(source, System.nanoTime() - startTime);
+            if (!loaded)
+            {
+                failedFiles.put(source, Boolean.TRUE);
+            }
+
+            // HOOK UP THE SUB REGIONS AND GO ON TO THEIR DIRECTORIES
+            ArrayList<Region> subRegions = new ArrayList<>(level.getAllRegions().values());
+            for (Region subRegion : subRegions)
+            {
+                subRegion.setParentRegion(region);
+            }
+            region.addSubRegions(subRegions);
+            numRegions.addAndGet(subRegions.size());
+            ArrayList<LoadTask> tasks = new ArrayList<>();
+            Iterator<Region> it = region.getSubRegions();
+            while (it.hasNext())
+            {
+                Region subRegion = it.next();
+                File subRegionDir = new File(dir, subRegion.getName());
+                if (subRegionDir.isDirectory())
+                {
+                    tasks.add(new LoadTask(dataDir, subRegionDir, subRegion));
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    private static String relativePath(File dataDir, File file)
+    {
+        return dataDir.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+    }
+}
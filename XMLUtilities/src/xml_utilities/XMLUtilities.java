@@ -3,10 +3,12 @@ package xml_utilities;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipFile;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
@@ -15,7 +17,9 @@ import javax.xml.validation.Validator;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 
 /**
  * This class provides general purpose utilities for the loading and
@@ -34,6 +38,31 @@ public class XMLUtilities
     // THIS REFERENCES A STANDARD SCHEMA FORMAT. NOTE THIS IS NOT THE SCHEMA
     public static final String SCHEMA_STANDARD_SPEC_URL = "http://www.w3.org/2001/XMLSchema";     
 
+    // COMPILED SCHEMAS ARE SHARED BY ALL THREADS, KEYED BY SCHEMA PATH.
+    // EACH ONE REMEMBERS ITS FILE'S MODIFICATION TIME SO THAT AN EDITED
+    // SCHEMA GETS COMPILED AGAIN
+    private static final ConcurrentHashMap<String, CompiledSchema> COMPILED_SCHEMAS = new ConcurrentHashMap<>();
+    
+    // THIS MAKES PARSING FAIL ON THE FIRST VALIDATION ERROR, LIKE
+    // A VALIDATOR DOES, RATHER THAN JUST PRINTING IT
+    private static final ErrorHandler STRICT_ERROR_HANDLER = new ErrorHandler()
+    {
+        @Override
+        public void warning(SAXParseException exception) {}
+
+        @Override
+        public void error(SAXParseException exception) throws SAXException
+        {
+            throw exception;
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXException
+        {
+            throw exception;
+        }
+    };
+
     /**
      * Default Constructor, no data needs to be initialized.
      */
@@ -58,23 +87,17 @@ public class XMLUtilities
     {
         try
         {
-            // 1. Lookup a factory for the W3C XML Schema language
-            SchemaFactory factory = 
-                    SchemaFactory.newInstance(SCHEMA_STANDARD_SPEC_URL);
-            
-            // 2. Compile the schema. 
-            // Here the schema is loaded from a java.io.File, but you could use 
-            // a java.net.URL or a javax.xml.transform.Source instead.
-            File schemaLocation = new File(xmlSchemaNameAndPath);
-            Schema schema = factory.newSchema(schemaLocation);
+            // 1. Get the compiled schema, which is only compiled
+            // the first time it's used or after it's been changed
+            CompiledSchema schema = getCompiledSchema(xmlSchemaNameAndPath);
             
-            // 3. Get a validator from the schema.
-            Validator validator = schema.newValidator();
+            // 2. Get this thread's validator for the schema.
+            Validator validator = schema.getValidator();
             
-            // 4. Parse the document you want to check.
+            // 3. Parse the document you want to check.
             Source source = new StreamSource(xmlDocNameAndPath);
             
-            // 5. Check the document
+            // 4. Check the document
             validator.validate(source);
             return true;
         }
@@ -86,11 +109,47 @@ public class XMLUtilities
         }          
     }    
     
+    /**
+     * This method validates the xml doc read from source against the
+     * xmlSchemaNameAndPath schema, handing everything it reads on to
+     * result as it goes. That way a doc can be validated and loaded
+     * while it's read just once, for example by reading it with a
+     * StAXSource and picking out the parts we want from a StAXResult.
+     * 
+     * @param source Where to read the XML Doc to validate from.
+     * 
+     * @param result Where to send the XML Doc as it's validated, which
+     * must be the kind of result that goes with the kind of source.
+     * 
+     * @param xmlSchemaNameAndPath XML Schema to use in validation
+     * 
+     * @return true if the xml doc is validate, false if it does not.
+     */
+    public boolean validateXMLDoc(  Source source,
+                                    Result result,
+                                    String xmlSchemaNameAndPath)
+    {
+        try
+        {
+            // CHECK THE DOCUMENT WITH THIS THREAD'S VALIDATOR
+            // FOR THE COMPILED SCHEMA
+            getCompiledSchema(xmlSchemaNameAndPath).getValidator().validate(source, result);
+            return true;
+        }
+        // FOR ANY EXCEPTION THAT OCCURS WE'LL BLAME
+        // IT ON AN INVALID XML FILE
+        catch (SAXException | IOException e) 
+        {
+            return false;
+        }          
+    }
+    
     /**
      * This method reads in the xmlFile, validates it against the
      * schemaFile, and if valid, loads it into a WhitespaceFreeXMLDoc
      * and returns it, which helps because that's a much easier
-     * format for us to deal with.
+     * format for us to deal with. Note that the file is validated
+     * while it's parsed, so it's only read once.
      * 
      * @param xmlFile Path and name of xml file to load.
      * 
@@ -104,34 +163,117 @@ public class XMLUtilities
     public Document loadXMLDocument(String xmlFile, String xsdFile)
             throws InvalidXMLFileFormatException
     {
-        // FIRST VALIDATE
-        boolean isValid = validateXMLDoc(xmlFile, xsdFile);
-        if (!isValid)
-        {
-            throw new InvalidXMLFileFormatException(xmlFile, xsdFile);
-        }
-        
-        // THIS IS JAVA API STUFF
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
         try
         {            
-            // FIRST RETRIEVE AND LOAD THE FILE INTO A TREE
-            DocumentBuilder db = dbf.newDocumentBuilder();
-            Document xmlDoc = db.parse(xmlFile);
+            // RETRIEVE, VALIDATE, AND LOAD THE FILE INTO A TREE ALL
+            // AT ONCE, USING THIS THREAD'S PARSER FOR THE SCHEMA
+            DocumentBuilder db = getCompiledSchema(xsdFile).getDocumentBuilder();
+            Document xmlDoc = db.parse(new File(xmlFile));
             xmlDoc.getDocumentElement().normalize();
            
             // LET'S RETURN THE DOC
             return xmlDoc;
         }
         // THESE ARE XML-RELATED ERRORS THAT COULD HAPPEN DURING
-        // LOADING AND PARSING IF THE XML FILE IS NOT WELL FORMED
-        // OR IS NOW WHERE AND WHAT WE SAY IT IS
-        catch(ParserConfigurationException | SAXException | IOException pce)
+        // LOADING AND PARSING IF THE XML FILE IS NOT WELL FORMED,
+        // DOES NOT VALIDATE, OR IS NOW WHERE AND WHAT WE SAY IT IS
+        catch(SAXException | IOException e)
+        {
+            throw new InvalidXMLFileFormatException(xmlFile, xsdFile);
+        }
+        catch(ParserConfigurationException pce)
         {
             throw new InvalidXMLFileFormatException(xmlFile);
         }           
     }   
     
+    /**
+     * This method gets the compiled version of the xsdFile schema,
+     * compiling it only if it hasn't been compiled yet or if the
+     * file has been changed since it was.
+     * 
+     * @param xsdFile Path and name of the schema file.
+     * 
+     * @return The compiled schema.
+     * 
+     * @throws SAXException Thrown if the schema can't be compiled.
+     */
+    private static CompiledSchema getCompiledSchema(String xsdFile)
+            throws SAXException
+    {
+        File schemaLocation = new File(xsdFile);
+        long lastModified = schemaLocation.lastModified();
+        CompiledSchema compiledSchema = COMPILED_SCHEMAS.get(xsdFile);
+        if ((compiledSchema == null) || (compiledSchema.lastModified != lastModified))
+        {
+            // SCHEMA FACTORIES AREN'T THREAD SAFE, SO EACH
+            // COMPILATION GETS ITS OWN
+            SchemaFactory factory = 
+                    SchemaFactory.newInstance(SCHEMA_STANDARD_SPEC_URL);
+            compiledSchema = new CompiledSchema(lastModified, factory.newSchema(schemaLocation));
+            COMPILED_SCHEMAS.put(xsdFile, compiledSchema);
+        }
+        return compiledSchema;
+    }
+    
+    /**
+     * A schema compiled from one version of a schema file. Compiled
+     * schemas may be shared between threads but validators and parsers
+     * may not, so each thread gets its own, which it then reuses.
+     */
+    private static class CompiledSchema
+    {
+        private final long lastModified;
+        private final Schema schema;
+        private final ThreadLocal<Validator> validators;
+        private final ThreadLocal<DocumentBuilder> documentBuilders;
+        
+        private CompiledSchema(long initLastModified, Schema initSchema)
+        {
+            lastModified = initLastModified;
+            schema = initSchema;
+            validators = new ThreadLocal<>();
+            documentBuilders = new ThreadLocal<>();
+        }
+        
+        private Validator getValidator()
+        {
+            Validator validator = validators.get();
+            if (validator == null)
+            {
+                validator = schema.newValidator();
+                validators.set(validator);
+            }
+            else
+            {
+                validator.reset();
+            }
+            return validator;
+        }
+        
+        private DocumentBuilder getDocumentBuilder()
+                throws ParserConfigurationException
+        {
+            DocumentBuilder documentBuilder = documentBuilders.get();
+            if (documentBuilder == null)
+            {
+                DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+                dbf.setNamespaceAware(true);
+                dbf.setSchema(schema);
+                documentBuilder = dbf.newDocumentBuilder();
+                documentBuilders.set(documentBuilder);
+            }
+            else
+            {
+                documentBuilder.reset();
+            }
+            
+            // NOTE THAT reset FORGETS THE ERROR HANDLER
+            documentBuilder.setErrorHandler(STRICT_ERROR_HANDLER);
+            return documentBuilder;
+        }
+    }
+    
     /**
      * This method extracts the data found in the doc argument that 
      * corresponds to the tagName and returns it as text. If no data